@@ -2,8 +2,35 @@
 package libraryoop;
 
 import libraryoop.models.*;
+import libraryoop.codec.AvailabilityReportRecord;
+import libraryoop.codec.BinaryCodec;
+import libraryoop.codec.BookRecord;
+import libraryoop.codec.CheckoutResultRecord;
+import libraryoop.server.JsonWriter;
+import libraryoop.server.LibraryHttpServer;
 import libraryoop.services.*;
+import libraryoop.simulation.LendingSimulation;
+import libraryoop.simulation.SimulationConfig;
+import libraryoop.simulation.SimulationReport;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Main {
     
@@ -239,6 +266,823 @@ public class Main {
             }
         }
         
+        private void testLendingPolicy() {
+            LocalDate holiday = LocalDate.of(2025, 12, 25);
+            LendingPolicyEngine engine = new LendingPolicyEngine(Arrays.asList(
+                new LendingRule(null, null, PhysicalBook.class, 28, null, null),
+                new LendingRule("Main", "staff", PhysicalBook.class, 60, null, null),
+                new LendingRule("Main", null, null, null, null, Arrays.asList(holiday))));
+            LendingService lendingService = new LendingServiceImpl(engine);
+            PhysicalBook book = new PhysicalBook("Refactoring", "Martin Fowler", "4444444444", "Section B");
+
+            LocalDate day = LocalDate.of(2025, 12, 24);
+            if (lendingService.getCheckoutPeriod(book, new LendingContext("Annex", "adult", day)) != 28) {
+                throw new RuntimeException("Format rule should override the default period");
+            }
+            if (lendingService.getCheckoutPeriod(book, new LendingContext("Main", "staff", day)) != 60) {
+                throw new RuntimeException("More specific rule should win");
+            }
+            if (lendingService.getCheckoutPeriod(digitalBook, new LendingContext("Main", "staff", day)) != 7) {
+                throw new RuntimeException("Unmatched format should keep the book's own period");
+            }
+            if (lendingService.canCheckout(book, new LendingContext("Main", null, holiday))) {
+                throw new RuntimeException("Blackout date should block checkout");
+            }
+            if (!lendingService.canCheckout(book, new LendingContext("Annex", null, holiday))) {
+                throw new RuntimeException("Blackout should only apply to its branch");
+            }
+
+            engine.reload(Collections.emptyList());
+            if (lendingService.getCheckoutPeriod(book, new LendingContext("Main", "staff", day)) != 14) {
+                throw new RuntimeException("Reloaded empty policy should fall back to the default period");
+            }
+
+            // A reload landing mid-checkout must not mix the old and new rules in one result
+            AtomicInteger evaluations = new AtomicInteger();
+            LendingPolicyEngine reloading = new LendingPolicyEngine(Arrays.asList(
+                    new LendingRule(null, null, PhysicalBook.class, 28, null, null))) {
+                @Override
+                public LendingPolicy.Decision evaluate(Book evaluated, LendingContext context) {
+                    LendingPolicy.Decision decision = super.evaluate(evaluated, context);
+                    if (evaluations.incrementAndGet() == 1) reload(Collections.emptyList());
+                    return decision;
+                }
+            };
+            BookService service = new BookServiceImpl(new LendingServiceImpl(reloading), new NotificationServiceImpl());
+            service.addBook(book);
+            CheckoutResult result = service.checkoutBook("4444444444", "P1", new LendingContext("Annex", "adult", day));
+            if (!result.isSuccess() || result.getCheckoutPeriod() != 28 || !result.getDueDate().contains("28 days")) {
+                throw new RuntimeException("Checkout should use one version of the rules: " + result.getDueDate());
+            }
+            if (evaluations.get() != 1) throw new RuntimeException("Policy should be evaluated once per checkout");
+        }
+        
+        private void testPatronLoanContention() {
+            final int maxLoans = 5;
+            LendingPolicyEngine engine = new LendingPolicyEngine(Arrays.asList(
+                new LendingRule(null, null, null, null, maxLoans, null)));
+            BookService service = new BookServiceImpl(new LendingServiceImpl(engine), new NotificationServiceImpl());
+            final int catalogSize = 2000;
+            for (int i = 0; i < catalogSize; i++) {
+                service.addBook(new DigitalBook("Title " + i, "Author", "C" + i, "epub"));
+            }
+
+            // 200 casual patrons plus 4 heavy borrowers who hammer checkout
+            final int casualPatrons = 200;
+            final int heavyPatrons = 4;
+            Map<String, String> heldBy = new ConcurrentHashMap<>();
+            Map<String, AtomicInteger> held = new ConcurrentHashMap<>();
+            List<String> violations = Collections.synchronizedList(new ArrayList<>());
+            LendingContext context = LendingContext.today();
+
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                final long seed = t;
+                threads.add(new Thread(() -> {
+                    Random random = new Random(seed);
+                    for (int op = 0; op < 20_000; op++) {
+                        String patron = random.nextInt(4) == 0
+                            ? "heavy-" + random.nextInt(heavyPatrons)
+                            : "patron-" + random.nextInt(casualPatrons);
+                        String isbn = "C" + random.nextInt(catalogSize);
+                        AtomicInteger count = held.computeIfAbsent(patron, p -> new AtomicInteger());
+
+                        if (random.nextInt(3) > 0) {
+                            if (service.checkoutBook(isbn, patron, context).isSuccess()) {
+                                if (heldBy.putIfAbsent(isbn, patron) != null) violations.add("double lend of " + isbn);
+                                if (count.incrementAndGet() > maxLoans) violations.add(patron + " exceeded limit");
+                            }
+                        } else if (heldBy.remove(isbn, patron)) {
+                            // Bookkeeping is undone before the service frees the slot
+                            count.decrementAndGet();
+                            if (!service.returnBook(isbn, patron)) violations.add("return refused for " + isbn);
+                        }
+                    }
+                }));
+            }
+            for (Thread thread : threads) thread.start();
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for borrowers");
+                }
+            }
+
+            if (!violations.isEmpty()) {
+                throw new RuntimeException(violations.size() + " violations, first: " + violations.get(0));
+            }
+            for (Map.Entry<String, AtomicInteger> entry : held.entrySet()) {
+                if (service.getLoanCount(entry.getKey()) != entry.getValue().get()) {
+                    throw new RuntimeException("Loan count drifted for " + entry.getKey());
+                }
+            }
+            int checkedOut = service.getAvailabilityReport().getCheckedOutBooks();
+            if (checkedOut != heldBy.size()) {
+                throw new RuntimeException("Expected " + heldBy.size() + " books out, report says " + checkedOut);
+            }
+        }
+        
+        private void testLocationIndex() {
+            BookService service = new BookServiceImpl(new LendingServiceImpl(), new NotificationServiceImpl());
+            service.addBook(new PhysicalBook("Clean Code", "Robert Martin", "L1", "Downtown/Section A"));
+            service.addBook(new PhysicalBook("Refactoring", "Martin Fowler", "L2", "Downtown/Section A"));
+            service.addBook(new PhysicalBook("SICP", "Abelson", "L3", "Downtown/Section B"));
+            service.addBook(new PhysicalBook("TAOCP", "Knuth", "L4", "Uptown/Section A"));
+
+            if (service.getAvailableAtLocation("downtown/section a").size() != 2) {
+                throw new RuntimeException("Expected 2 available books at Downtown/Section A");
+            }
+            service.checkoutBook("L1");
+            service.checkoutBook("L3");
+            if (service.getAvailableAtLocation("Downtown/Section A").size() != 1) {
+                throw new RuntimeException("Checkout should clear the availability bit");
+            }
+            if (service.getAvailableUnderLocation("Downtown/").size() != 1) {
+                throw new RuntimeException("Branch query should only see available copies");
+            }
+            service.returnBook("L1", null);
+            if (service.getAvailableUnderLocation("Downtown/").size() != 2) {
+                throw new RuntimeException("Return should set the availability bit");
+            }
+
+            Map<String, String> audit = new HashMap<>();
+            audit.put("L1", "Worn");
+            audit.put("L4", "Damaged"); // on another shelf, must be ignored
+            if (service.auditShelf("Downtown/Section A", audit) != 1) {
+                throw new RuntimeException("Audit should only touch books on the audited shelf");
+            }
+            if (!"Worn".equals(((PhysicalBook) service.getBookByIsbn("L1")).getCondition())) {
+                throw new RuntimeException("Audit should update the condition");
+            }
+        }
+        
+        private void testAvailabilityFollowsInventory() {
+            BookService service = new BookServiceImpl(new LendingServiceImpl(), new NotificationServiceImpl());
+            service.addBook(new PhysicalBook("Withdrawn", "Author", "W1", "Annex/Shelf 1"));
+            service.addBook(new PhysicalBook("Stocked", "Author", "W2", "Annex/Shelf 1"));
+            service.addCopies("W2", 4);
+
+            // Writing the flag of a catalogued book withdraws the title; every view agrees
+            Book withdrawn = service.getBookByIsbn("W1");
+            withdrawn.setAvailability(false);
+            if (withdrawn.isAvailable() || service.getAvailableCopies("W1") != 0) {
+                throw new RuntimeException("Withdrawn title should have no lendable copies");
+            }
+            if (service.checkoutBook("W1").isSuccess()) throw new RuntimeException("Withdrawn title should not check out");
+            if (service.getAvailabilityReport().getAvailableBooks() != 5) {
+                throw new RuntimeException("Report should agree with checkout, got " + service.getAvailabilityReport().getAvailableBooks());
+            }
+            withdrawn.setAvailability(true);
+            if (!service.checkoutBook("W1").isSuccess() || withdrawn.isAvailable()) {
+                throw new RuntimeException("Reinstated title should check out its one copy");
+            }
+            try {
+                new BookServiceImpl(new LendingServiceImpl(), new NotificationServiceImpl()).addBook(withdrawn);
+                throw new RuntimeException("A catalogued book should not join a second service");
+            } catch (IllegalArgumentException e) {
+                // Expected - its availability already belongs to the first service's inventory
+            }
+
+            // Shelf counts are per copy
+            if (service.countAvailableCopiesAt("Annex/Shelf 1") != 5) {
+                throw new RuntimeException("Expected 5 copies on the shelf, got " + service.countAvailableCopiesAt("Annex/Shelf 1"));
+            }
+            service.checkoutBook("W2");
+            if (service.countAvailableCopiesAt("annex/shelf 1") != 4 || service.getAvailableAtLocation("Annex/Shelf 1").size() != 1) {
+                throw new RuntimeException("Shelf should hold 4 copies of one available title");
+            }
+
+            // As before copies existed, setAvailability(true) puts a checked-out book back
+            withdrawn.setAvailability(true);
+            if (!withdrawn.isAvailable() || !service.checkoutBook("W1").isSuccess()) {
+                throw new RuntimeException("setAvailability(true) should return the anonymous loan");
+            }
+            try {
+                service.returnBook("W1", "");
+                throw new RuntimeException("An empty patron ID should be rejected");
+            } catch (IllegalArgumentException e) {
+                // Expected - the anonymous loan stays out
+            }
+            if (withdrawn.isAvailable() || !service.returnBook("W1", null) || !withdrawn.isAvailable()) {
+                throw new RuntimeException("A rejected return should leave the anonymous loan intact");
+            }
+
+            // Patron loans only come back through the service, by the patron who holds them
+            LendingContext today = LendingContext.today();
+            service.checkoutBook("W1", "P1", today);
+            service.checkoutBook("W2", "P2", today);
+            try {
+                withdrawn.setAvailability(true);
+                throw new RuntimeException("setAvailability(true) should not return a patron loan");
+            } catch (IllegalStateException e) {
+                // Expected
+            }
+            if (withdrawn.isAvailable()) throw new RuntimeException("Patron loan should still be out");
+            if (service.returnBook("W1", "P2") || service.getLoanCount("P2") != 1) {
+                throw new RuntimeException("A patron returning a copy they do not hold should change nothing");
+            }
+            if (!service.returnBook("W1", "P1") || service.getLoanCount("P1") != 0 || !withdrawn.isAvailable()) {
+                throw new RuntimeException("Holder should be able to return the loan");
+            }
+        }
+
+        private void testMultiCopyInventory() {
+            BookService service = new BookServiceImpl(new LendingServiceImpl(), new NotificationServiceImpl());
+            service.addBook(new PhysicalBook("Bestseller", "Popular Author", "M1", "Front Desk"));
+            if (service.addCopies("M1", 39) != 40) throw new RuntimeException("Expected 40 copies");
+            try {
+                service.addBook(new PhysicalBook("Bestseller", "Popular Author", "M1", "Front Desk"));
+                throw new RuntimeException("Duplicate ISBN should still be rejected by addBook");
+            } catch (IllegalArgumentException e) {
+                // Expected - copies go through addCopies
+            }
+
+            // 16 threads race 100 checkouts each for 40 copies
+            AtomicInteger successes = new AtomicInteger();
+            Queue<String> holders = new ConcurrentLinkedQueue<>();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                final String patron = "reader-" + t;
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        if (service.checkoutBook("M1", patron + "-" + i, LendingContext.today()).isSuccess()) {
+                            successes.incrementAndGet();
+                            holders.add(patron + "-" + i);
+                        }
+                    }
+                }));
+            }
+            for (Thread thread : threads) thread.start();
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for borrowers");
+                }
+            }
+
+            if (successes.get() != 40) throw new RuntimeException("Expected 40 checkouts, got " + successes.get());
+            if (service.getBookByIsbn("M1").isAvailable()) throw new RuntimeException("No copies left, book should be unavailable");
+            AvailabilityReport report = service.getAvailabilityReport();
+            if (report.getTotalBooks() != 40 || report.getCheckedOutBooks() != 40) {
+                throw new RuntimeException("Report should count copies, got " + report.getTotalBooks() + "/" + report.getCheckedOutBooks());
+            }
+
+            if (!service.returnBook("M1", holders.peek())) {
+                throw new RuntimeException("A holder should be able to return a copy");
+            }
+            if (service.returnBook("M1", "nobody")) throw new RuntimeException("Non-holder return should be refused");
+            if (service.getAvailableCopies("M1") != 1 || !service.getBookByIsbn("M1").isAvailable()) {
+                throw new RuntimeException("Returned copy should make the book available again");
+            }
+        }
+        
+        private void testTieredCatalog() {
+            BookServiceImpl service = new BookServiceImpl(new LendingServiceImpl(), new NotificationServiceImpl());
+            Map<String, Integer> ids = new HashMap<>();
+            for (int i = 0; i < 100; i++) {
+                PhysicalBook book = new PhysicalBook("Backlist " + i, "Author " + i, "T" + i, "Stacks/Row " + (i % 5), "Good");
+                ids.put(book.getIsbn(), book.getId());
+                service.addBook(book);
+            }
+            service.checkoutBook("T1");
+            PhysicalBook held = (PhysicalBook) service.getBookByIsbn("T2");
+            AvailabilityReport before = service.getAvailabilityReport();
+
+            // T1 and T2 were looked up since the last rebalance, so they stay hot this time
+            if (service.rebalanceCatalog(10) != 90) throw new RuntimeException("Expected 90 titles demoted");
+            if (service.getColdTitleCount() != 90) throw new RuntimeException("Expected 90 cold titles");
+            held.setCondition("Fragile");
+            if (service.getAllBooks().size() != 100) throw new RuntimeException("Scans should include cold titles");
+            for (Book book : service.getAllBooks()) {
+                if (book.getId() != ids.get(book.getIsbn())) throw new RuntimeException("ID should survive cold storage");
+            }
+            if (service.getAvailableUnderLocation("Stacks/").size() != 99) {
+                throw new RuntimeException("Location index should still answer for cold titles");
+            }
+            if (service.getBooksByType(PhysicalBook.class).size() != 100 || service.searchBooks("backlist 4").size() != 11) {
+                throw new RuntimeException("Type filter and search should cover cold titles");
+            }
+            if (service.getColdTitleCount() != 90) throw new RuntimeException("Queries should not promote cold titles");
+
+            if (service.rebalanceCatalog(0) != 10) throw new RuntimeException("Idle titles should all be demoted");
+            AvailabilityReport after = service.getAvailabilityReport();
+            if (after.getAvailableBooks() != before.getAvailableBooks() || after.getTotalBooks() != before.getTotalBooks()
+                    || after.getAverageCheckoutPeriod() != before.getAverageCheckoutPeriod()) {
+                throw new RuntimeException("Demotion should not change the report");
+            }
+
+            // Shelves re-check cold titles at their inventory, however the change was made
+            Book snapshot = null;
+            for (Book book : service.getAllBooks()) {
+                if (book.getIsbn().equals("T3")) snapshot = book;
+            }
+            snapshot.setAvailability(false);
+            if (service.getAvailableAtLocation("Stacks/Row 3").size() != 19 || service.countAvailableCopiesAt("Stacks/Row 3") != 19) {
+                throw new RuntimeException("A cold title withdrawn through a snapshot should leave the shelf");
+            }
+            snapshot.setAvailability(true);
+            if (service.getAvailableAtLocation("Stacks/Row 3").size() != 20 || service.getColdTitleCount() != 100) {
+                throw new RuntimeException("A reinstated cold title should be back on the shelf, still cold");
+            }
+            if (service.fuzzySearch("Backlst 7", 1, 10).isEmpty() || service.getColdTitleCount() != 100) {
+                throw new RuntimeException("Fuzzy search should find cold titles without promoting them");
+            }
+
+            // Scans work from a snapshot of the cold tier, so promotions never wait on them
+            TieredCatalog catalog = new TieredCatalog();
+            catalog.putIfAbsent(new DigitalBook("Scanned", "Author", "K1", "pdf"));
+            catalog.putIfAbsent(new DigitalBook("Promoted", "Author", "K2", "pdf"));
+            catalog.rebalance(0);
+            ExecutorService promoter = Executors.newSingleThreadExecutor();
+            try {
+                catalog.forEachCold(record -> {
+                    if (!record.getIsbn().equals("K1")) return;
+                    try {
+                        promoter.submit(() -> catalog.get("K2")).get(5, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new RuntimeException("Promotion should not wait on a scan");
+                    }
+                });
+            } finally {
+                promoter.shutdown();
+            }
+            AtomicInteger cold = new AtomicInteger();
+            catalog.forEachCold(record -> cold.incrementAndGet());
+            if (cold.get() != 1 || catalog.getColdCount() != 1) throw new RuntimeException("Promoted record should be skipped by scans");
+
+            // Point access brings titles back with their state
+            if (service.getBookByIsbn("T1").isAvailable()) throw new RuntimeException("Checked-out title should stay unavailable");
+            if (!"Fragile".equals(((PhysicalBook) service.getBookByIsbn("T2")).getCondition())) {
+                throw new RuntimeException("Condition should survive a round trip through cold storage");
+            }
+            if (!service.returnBook("T1", null)) throw new RuntimeException("Return should work after promotion");
+            if (service.getAvailableAtLocation("Stacks/Row 1").size() != 20) {
+                throw new RuntimeException("Returned title should be back on the shelf");
+            }
+        }
+        
+        private void testUsageAnalytics() {
+            long[] now = {10 * 86_400_000L}; // midnight, day 10
+            AvailabilityAnalytics analytics = new AvailabilityAnalytics(() -> now[0]);
+            BookServiceImpl service = new BookServiceImpl(new LendingServiceImpl(), new NotificationServiceImpl(), analytics);
+            service.addBook(new DigitalBook("Trend", "Author", "U1", "epub"));
+            service.addCopies("U1", 1);
+
+            service.checkoutBook("U1");
+            now[0] += 60_000L;
+            service.checkoutBook("U1");
+            service.checkoutBook("U1"); // no copy left, not counted
+            now[0] += 60_000L;
+            service.returnBook("U1", null);
+
+            long start = 10 * 86_400_000L;
+            List<UsageBucket> minutes = service.getUsageTrend(DigitalBook.class, AvailabilityAnalytics.Resolution.MINUTE,
+                start, start + 180_000L);
+            if (minutes.size() != 3) throw new RuntimeException("Expected three minute buckets, got " + minutes.size());
+            if (minutes.get(0).getCheckouts() != 1 || minutes.get(1).getCheckouts() != 1 || minutes.get(2).getReturns() != 1) {
+                throw new RuntimeException("Minute buckets should hold each event once");
+            }
+            if (minutes.get(1).getStockouts() != 1 || minutes.get(1).getPeakCheckedOut() != 2) {
+                throw new RuntimeException("Second minute should record the stockout at two copies out");
+            }
+
+            UsageBucket hour = service.getUsageTrend(DigitalBook.class, AvailabilityAnalytics.Resolution.HOUR,
+                start, start + 3_600_000L).get(0);
+            if (hour.getCheckouts() != 2 || hour.getReturns() != 1) throw new RuntimeException("Hour should roll up the minutes");
+
+            // Minute buckets age out of the ring; the day bucket keeps the totals
+            now[0] += 4 * 3_600_000L;
+            if (service.getUsageTrend(DigitalBook.class, AvailabilityAnalytics.Resolution.MINUTE, start, start + 60_000L)
+                    .get(0).getCheckouts() != 0) {
+                throw new RuntimeException("Minutes past retention should read as empty");
+            }
+            UsageBucket day = service.getUsageTrend(DigitalBook.class, AvailabilityAnalytics.Resolution.DAY,
+                start, start + 1).get(0);
+            if (day.getCheckouts() != 2 || day.getStockouts() != 1) throw new RuntimeException("Day bucket should keep the totals");
+            if (service.getUsageTrend(PhysicalBook.class, AvailabilityAnalytics.Resolution.DAY, start, start + 1)
+                    .get(0).getCheckouts() != 0) {
+                throw new RuntimeException("Other types should have no activity");
+            }
+            if (analytics.getCheckedOut("DigitalBook") != 1) throw new RuntimeException("One copy should still be out");
+
+            // Quiet buckets report the loans held through them
+            if (service.getUsageTrend(DigitalBook.class, AvailabilityAnalytics.Resolution.HOUR, start + 3_600_000L,
+                    start + 7_200_000L).get(0).getPeakCheckedOut() != 1) {
+                throw new RuntimeException("A quiet hour should carry the copy still out");
+            }
+            long busy = Math.floorDiv(now[0], 3_600_000L) * 3_600_000L;
+            for (int i = 0; i < 100; i++) analytics.recordCheckout("PhysicalBook");
+            now[0] += 2 * 3_600_000L;
+            analytics.recordReturn("PhysicalBook");
+            List<UsageBucket> hours = analytics.query("PhysicalBook", AvailabilityAnalytics.Resolution.HOUR,
+                busy, busy + 3 * 3_600_000L);
+            for (UsageBucket bucket : hours) {
+                if (bucket.getPeakCheckedOut() != 100) throw new RuntimeException("Every hour should peak at 100 loans out");
+            }
+            if (hours.get(1).getCheckouts() != 0 || hours.get(2).getReturns() != 1) {
+                throw new RuntimeException("Carrying the level should not invent events");
+            }
+
+            // Ranges longer than the ring keep their start; the part past retention reads as zeros
+            List<UsageBucket> day10 = analytics.query("DigitalBook", AvailabilityAnalytics.Resolution.MINUTE,
+                start, start + 86_400_000L);
+            if (day10.size() != 1440 || day10.get(0).getStartMillis() != start || day10.get(0).getCheckouts() != 0) {
+                throw new RuntimeException("A day of minutes should come back whole, got " + day10.size());
+            }
+            try {
+                analytics.query("DigitalBook", AvailabilityAnalytics.Resolution.MINUTE, start - 365L * 86_400_000L, start);
+                throw new RuntimeException("A year of minutes should be rejected");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+
+        private void testSimulationReplay() {
+            SimulationConfig config = new SimulationConfig(7, 200, 40, 60, 30, 1.0, 40, 50, 10);
+            SimulationReport first = simulate(config);
+            SimulationReport second = simulate(config);
+            if (first.getDigest() != second.getDigest() || first.getTotalOperations() != second.getTotalOperations()) {
+                throw new RuntimeException("Same seed should replay the same workload");
+            }
+            if (simulate(new SimulationConfig(8, 200, 40, 60, 30, 1.0, 40, 50, 10)).getDigest() == first.getDigest()) {
+                throw new RuntimeException("A different seed should produce different traffic");
+            }
+            if (first.getSucceeded(SimulationReport.Operation.RETURN) == 0) {
+                throw new RuntimeException("Loans should come back within a month");
+            }
+        }
+
+        private SimulationReport simulate(SimulationConfig config) {
+            LendingService lending = new LendingServiceImpl();
+            BookService service = new BookServiceImpl(lending, new NotificationServiceImpl());
+            SimulationReport report = new LendingSimulation(config, service, lending).run();
+
+            // Every granted loan is either returned or still holding a copy
+            AvailabilityReport availability = service.getAvailabilityReport();
+            long outstanding = report.getSucceeded(SimulationReport.Operation.CHECKOUT)
+                - report.getSucceeded(SimulationReport.Operation.RETURN);
+            if (availability.getCheckedOutBooks() != outstanding) {
+                throw new RuntimeException("Expected " + outstanding + " copies out, report says " + availability.getCheckedOutBooks());
+            }
+            return report;
+        }
+
+        private void testFuzzyAutocomplete() {
+            List<String> suggestions = bookService.autocomplete("Rob", 5);
+            if (!suggestions.contains("Robert Martin") && !suggestions.contains("Robert")) {
+                throw new RuntimeException("Prefix should suggest the author, got " + suggestions);
+            }
+            if (!bookService.autocomplete("Robret Ma", 5).contains("Robert Martin")) {
+                throw new RuntimeException("Typo in a long prefix should still complete");
+            }
+
+            List<Book> results = bookService.fuzzySearch("Robret Martin", 1, 10);
+            if (results.size() != 1 || !results.get(0).getIsbn().equals("2222222222")) {
+                throw new RuntimeException("Transposed author name should match within one edit");
+            }
+            if (bookService.fuzzySearch("Jon Narator", 2, 10).isEmpty()) {
+                throw new RuntimeException("Narrator should be searchable with typos");
+            }
+            if (!bookService.fuzzySearch("Robret Martin", 0, 10).isEmpty()) {
+                throw new RuntimeException("Zero edits should require an exact term");
+            }
+        }
+        
+        private void testSymbolInterning() {
+            String author = new StringBuilder("Ursula ").append("Le Guin").toString();
+            Book first = new DigitalBook("The Dispossessed", author, "S1", " epub ");
+            Book second = new AudioBook("The Lathe of Heaven", new String(author), "S2", " Ursula Le Guin ", 420);
+
+            if (first.getAuthorId() != second.getAuthorId() || first.getAuthor() != second.getAuthor()) {
+                throw new RuntimeException("Equal authors should share one canonical value and ID");
+            }
+            if (((AudioBook) second).getNarratorId() != second.getAuthorId()) {
+                throw new RuntimeException("Narrators and authors should share the name table");
+            }
+            if (!"epub".equals(((DigitalBook) first).getFileFormat())
+                    || !"/download/S1.epub".equals(((DigitalBook) first).getDownloadUrl())) {
+                throw new RuntimeException("Interned format should be trimmed");
+            }
+            PhysicalBook a = new PhysicalBook("One", "Author", "S3", "Annex/Shelf 9");
+            PhysicalBook b = new PhysicalBook("Two", "Author", "S4", "Annex/Shelf 9 ");
+            if (a.getLocationId() != b.getLocationId() || SymbolTable.LOCATIONS.find("Annex/Shelf 9") != a.getLocationId()) {
+                throw new RuntimeException("Equal locations should share an ID");
+            }
+        }
+
+        private void testCachedRendering() {
+            PhysicalBook book = new PhysicalBook("Gödel, Escher, Bach", "Douglas Hofstadter", "R1", "Annex/Shelf 2", "Good");
+            String info = book.getDisplayInfo();
+            if (info != book.getDisplayInfo()) throw new RuntimeException("Display info should be cached");
+            book.setCondition("Worn");
+            if (!book.getDisplayInfo().endsWith("[Physical: Annex/Shelf 2, Worn]")) {
+                throw new RuntimeException("Condition change should invalidate the cache, got " + book.getDisplayInfo());
+            }
+
+            String description = book.toString();
+            if (description != book.toString()) throw new RuntimeException("toString should be cached");
+            book.setAvailability(false);
+            if (!book.toString().contains("isAvailable=false")) throw new RuntimeException("toString should follow availability");
+
+            if (!new AudioBook("Long", "Author", "R2", "Narrator", 9).getDisplayInfo().endsWith(", 0.2h]")
+                    || !new AudioBook("Long", "Author", "R3", "Narrator", 754).getDisplayInfo().endsWith(", 12.6h]")) {
+                throw new RuntimeException("Audio duration should round to tenths of an hour");
+            }
+
+            try {
+                AudioBook audio = new AudioBook("Stream", "Author", "R4", "Narrator 🎧", 95);
+                StringBuilder streamed = new StringBuilder();
+                audio.writeDisplayInfo(streamed);
+                if (!streamed.toString().equals(audio.getDisplayInfo())) throw new RuntimeException("Streamed text should match");
+
+                ByteBuffer buffer = ByteBuffer.allocate(256);
+                book.writeDisplayInfo(buffer);
+                audio.writeDisplayInfo(buffer);
+                byte[] expected = (book.getDisplayInfo() + audio.getDisplayInfo()).getBytes(StandardCharsets.UTF_8);
+                if (!Arrays.equals(Arrays.copyOf(buffer.array(), buffer.position()), expected)) {
+                    throw new RuntimeException("ByteBuffer render should be UTF-8 of the display text");
+                }
+
+                // Wire format and rendered text share one encoder: a lone surrogate becomes '?' in both
+                DigitalBook broken = new DigitalBook("Half \uD83C", "Author", "R5", "epub");
+                ByteBuffer rendered = ByteBuffer.allocate(128);
+                broken.writeDisplayInfo(rendered);
+                if (!Arrays.equals(Arrays.copyOf(rendered.array(), rendered.position()),
+                        broken.getDisplayInfo().getBytes(StandardCharsets.UTF_8))) {
+                    throw new RuntimeException("Lone surrogate should render as String.getBytes does");
+                }
+                ByteBuffer encoded = ByteBuffer.allocate(128);
+                BinaryCodec.encode(broken, encoded);
+                if (!"Half ?".equals(BinaryCodec.readBook(encoded, 0).getTitle())) {
+                    throw new RuntimeException("Lone surrogate should encode as '?' on the wire");
+                }
+            } catch (java.io.IOException e) {
+                throw new RuntimeException(e);
+            }
+
+            ByteBuffer small = ByteBuffer.allocate(8);
+            small.put((byte) 1);
+            try {
+                book.writeDisplayInfo(small);
+                throw new RuntimeException("Render larger than the buffer should overflow");
+            } catch (BufferOverflowException e) {
+                if (small.position() != 1) throw new RuntimeException("Overflow should leave the buffer position unchanged");
+            }
+        }
+
+        private void testBinaryCodec() {
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            Book[] books = {
+                new DigitalBook("Gödel, Escher, Bach", "Douglas Hofstadter", "B1", "epub"),
+                new PhysicalBook("日本の本 🎧", "Author", "B2", "Annex/Shelf 1", "Worn"),
+                new AudioBook("Listen", "Author", "B3", "Narrator", 754)
+            };
+            books[1].setAvailability(false);
+            int[] offsets = new int[books.length];
+            for (int i = 0; i < books.length; i++) {
+                offsets[i] = buffer.position();
+                BinaryCodec.encode(books[i], buffer);
+            }
+            for (int i = 0; i < books.length; i++) {
+                BookRecord record = BinaryCodec.readBook(buffer, offsets[i]);
+                Book copy = record.toBook();
+                if (copy.getClass() != books[i].getClass() || copy.getId() != books[i].getId()
+                        || !copy.getTitle().equals(books[i].getTitle()) || !copy.getAuthor().equals(books[i].getAuthor())
+                        || !copy.getIsbn().equals(books[i].getIsbn()) || copy.isAvailable() != books[i].isAvailable()
+                        || !copy.getDisplayInfo().equals(books[i].getDisplayInfo())) {
+                    throw new RuntimeException("Book should survive a round trip: " + copy + " vs " + books[i]);
+                }
+                if (!record.hasIsbn(books[i].getIsbn()) || record.hasIsbn("B9")) {
+                    throw new RuntimeException("ISBN should compare against the encoded bytes");
+                }
+            }
+
+            CheckoutResult success = new CheckoutResult(true, "Book checked out successfully", "2024-01-15", 14, null);
+            CheckoutResult failure = new CheckoutResult(false, "Kein Exemplar verfügbar");
+            int successAt = buffer.position();
+            BinaryCodec.encode(success, buffer);
+            int failureAt = buffer.position();
+            BinaryCodec.encode(failure, buffer);
+            CheckoutResultRecord ok = BinaryCodec.readCheckoutResult(buffer, successAt);
+            CheckoutResultRecord failed = BinaryCodec.readCheckoutResult(buffer, failureAt);
+            if (!ok.isSuccess() || ok.getCheckoutPeriod() != 14 || !"2024-01-15".equals(ok.getDueDate())
+                    || ok.getNotification() != null || ok.getErrorMessage() != null) {
+                throw new RuntimeException("Successful checkout should round-trip, nulls included");
+            }
+            if (failed.isSuccess() || failed.getCheckoutPeriod() != null || failed.getMessage() != null
+                    || !"Kein Exemplar verfügbar".equals(failed.toCheckoutResult().getErrorMessage())) {
+                throw new RuntimeException("Failed checkout should round-trip");
+            }
+
+            Map<String, TypeReport> byType = new HashMap<>();
+            byType.put("DigitalBook", new TypeReport(3, 1));
+            byType.put("AudioBook", new TypeReport(2, 2));
+            int reportAt = buffer.position();
+            BinaryCodec.encode(new AvailabilityReport(5, 3, 2, byType, 12.5), buffer);
+            AvailabilityReportRecord report = BinaryCodec.readAvailabilityReport(buffer, reportAt);
+            AvailabilityReport decoded = report.toAvailabilityReport();
+            if (decoded.getTotalBooks() != 5 || decoded.getAvailableBooks() != 3 || decoded.getCheckedOutBooks() != 2
+                    || decoded.getAverageCheckoutPeriod() != 12.5 || decoded.getByType().size() != 2
+                    || report.getTypeReport("DigitalBook").getAvailable() != 1 || report.getTypeReport("PhysicalBook") != null) {
+                throw new RuntimeException("Availability report should round-trip");
+            }
+            int typeAt = buffer.position();
+            BinaryCodec.encode(new TypeReport(7, 4), buffer);
+            TypeReport type = BinaryCodec.readTypeReport(buffer, typeAt);
+            if (type.getTotal() != 7 || type.getAvailable() != 4) throw new RuntimeException("Type report should round-trip");
+
+            // Failed encodes leave the position alone
+            ByteBuffer small = ByteBuffer.allocate(24);
+            small.put((byte) 9);
+            try {
+                BinaryCodec.encode(books[0], small);
+                throw new RuntimeException("Book larger than the buffer should overflow");
+            } catch (BufferOverflowException e) {
+                if (small.position() != 1) throw new RuntimeException("Overflow should leave the position unchanged");
+            }
+            BinaryCodec.encode(new TypeReport(1, 1), small);
+            char[] huge = new char[70_000];
+            Arrays.fill(huge, 'x');
+            int before = buffer.position();
+            try {
+                BinaryCodec.encode(new CheckoutResult(false, new String(huge)), buffer);
+                throw new RuntimeException("Oversized string should be rejected");
+            } catch (IllegalArgumentException e) {
+                if (buffer.position() != before) throw new RuntimeException("Rejected encode should leave the position unchanged");
+            }
+        }
+
+        // Written against the original interfaces: only the baseline methods are implemented
+        private static class LegacyLendingService implements LendingService {
+            @Override
+            public <T> String calculateDueDate(T item) {
+                return "Due in " + ((Lendable) item).getCheckoutPeriod() + " days";
+            }
+
+            @Override
+            public <T> boolean canCheckout(T item) {
+                return ((Lendable) item).isAvailable();
+            }
+        }
+
+        private static class LegacyBookService implements BookService {
+            private final Map<String, Book> books = new LinkedHashMap<>();
+            private final LendingService lendingService = new LegacyLendingService();
+
+            @Override public synchronized void addBook(Book book) { books.put(book.getIsbn(), book); }
+            @Override public synchronized List<Book> getAllBooks() { return new ArrayList<>(books.values()); }
+            @Override public synchronized Book getBookByIsbn(String isbn) { return books.get(isbn); }
+
+            @Override
+            public <T extends Book> List<T> getBooksByType(Class<T> bookClass) {
+                List<T> result = new ArrayList<>();
+                for (Book book : getAllBooks()) if (bookClass.isInstance(book)) result.add(bookClass.cast(book));
+                return result;
+            }
+
+            @Override
+            public synchronized CheckoutResult checkoutBook(String isbn) {
+                Book book = books.get(isbn);
+                if (book == null || !lendingService.canCheckout(book)) return new CheckoutResult(false, "Book is not available");
+                book.setAvailability(false);
+                return new CheckoutResult(true, "Book checked out successfully", lendingService.calculateDueDate(book),
+                    book.getCheckoutPeriod(), null);
+            }
+
+            @Override
+            public AvailabilityReport getAvailabilityReport() {
+                List<Book> all = getAllBooks();
+                int available = 0;
+                for (Book book : all) if (book.isAvailable()) available++;
+                return new AvailabilityReport(all.size(), available, all.size() - available, new HashMap<>(), 0);
+            }
+
+            @Override
+            public List<Book> searchBooks(String query) {
+                List<Book> result = new ArrayList<>();
+                for (Book book : getAllBooks()) if (book.matchesQuery(query)) result.add(book);
+                return result;
+            }
+        }
+
+        private void testInterfaceDefaults() {
+            LegacyBookService legacy = new LegacyBookService();
+            legacy.addBook(new PhysicalBook("Old Service", "Author", "O1", "Branch/Shelf 1"));
+            LendingContext context = LendingContext.today();
+
+            if (legacy.lendingService.getCheckoutPeriod(legacy.getBookByIsbn("O1"), context) != 14
+                    || legacy.lendingService.getMaxLoans(legacy.getBookByIsbn("O1"), context) != Integer.MAX_VALUE) {
+                throw new RuntimeException("Lending defaults should fall back to the book's own period and no limit");
+            }
+            if (legacy.getAvailableAtLocation("branch/shelf 1").size() != 1 || !legacy.autocomplete("Old", 5).contains("Old Service")) {
+                throw new RuntimeException("Location and autocomplete defaults should scan the catalog");
+            }
+            if (!legacy.checkoutBook("O1", "patron", context).isSuccess() || legacy.getAvailableCopies("O1") != 0) {
+                throw new RuntimeException("Context checkout should fall back to the plain checkout");
+            }
+            if (!legacy.returnBook("O1", "patron") || legacy.returnBook("O1", "patron")) {
+                throw new RuntimeException("Default return should put the single copy back once");
+            }
+            if (legacy.supportsCopies() || legacy.supportsUsageTrend()) {
+                throw new RuntimeException("Defaults should not claim copies or usage history");
+            }
+
+            Searchable oldSearchable = query -> query.equals("old");
+            if (!oldSearchable.getSearchTerms().isEmpty()) throw new RuntimeException("Searchable items should default to no terms");
+
+            // The simulation only needs the defaults
+            LegacyBookService simulated = new LegacyBookService();
+            SimulationReport report = new LendingSimulation(new SimulationConfig(3, 100, 20, 30, 20, 1.0, 40, 50, 10),
+                simulated, simulated.lendingService).run();
+            if (report.getSucceeded(SimulationReport.Operation.RETURN) == 0) {
+                throw new RuntimeException("Simulation should run against a legacy implementation");
+            }
+        }
+
+        private void testJsonWriter() {
+            try {
+                StringWriter out = new StringWriter();
+                new JsonWriter(out).beginObject()
+                    .name("text").value("say \"hi\"\\ \n\t\u0001 é🎧")
+                    .name("missing").value((String) null)
+                    .name("list").beginArray().value(1).value(2.5).value(Double.NaN).value(true).endArray()
+                    .name("empty").beginObject().endObject()
+                    .endObject().flush();
+                String expected = "{\"text\":\"say \\\"hi\\\"\\\\ \\n\\t\\u0001 é🎧\","
+                    + "\"missing\":null,\"list\":[1,2.5,null,true],\"empty\":{}}";
+                if (!out.toString().equals(expected)) throw new RuntimeException("Unexpected JSON " + out);
+
+                out = new StringWriter();
+                JsonWriter json = new JsonWriter(out);
+                json.beginArray().book(new DigitalBook("The \"Quoted\" Title", "Author", "J1", "pdf"))
+                    .checkoutResult(new CheckoutResult(false, "Book is not available")).endArray().flush();
+                expected = "[{\"type\":\"DigitalBook\",\"isbn\":\"J1\",\"title\":\"The \\\"Quoted\\\" Title\","
+                    + "\"author\":\"Author\",\"available\":true,\"checkoutPeriod\":7,\"fileFormat\":\"pdf\","
+                    + "\"downloadUrl\":\"/download/J1.pdf\"},{\"success\":false,\"errorMessage\":\"Book is not available\"}]";
+                if (!out.toString().equals(expected)) throw new RuntimeException("Unexpected JSON " + out);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private void testHttpServer() {
+            BookService service = new BookServiceImpl(new LendingServiceImpl(), new NotificationServiceImpl());
+            service.addBook(new PhysicalBook("Single Copy", "Author", "H1", "Section H"));
+            LibraryHttpServer server;
+            try {
+                server = new LibraryHttpServer(service, 0);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            server.start();
+            ExecutorService clients = Executors.newFixedThreadPool(16);
+            try {
+                HttpClient client = HttpClient.newHttpClient();
+                String base = "http://localhost:" + server.getPort();
+                if (status(client, "GET", base + "/booksXYZ") != 404) throw new RuntimeException("/booksXYZ should not route to /books");
+                if (status(client, "GET", base + "/reportX") != 404) throw new RuntimeException("/reportX should not route to /report");
+                if (status(client, "GET", base + "/books/H1") != 200) throw new RuntimeException("Lookup should succeed");
+                if (status(client, "GET", base + "/books/NOPE") != 404) throw new RuntimeException("Unknown ISBN should be 404");
+                if (status(client, "POST", base + "/books/NOPE/checkout") != 404) {
+                    throw new RuntimeException("Checkout of an unknown ISBN should be 404");
+                }
+                if (status(client, "POST", base + "/report") != 405) throw new RuntimeException("Report should be read-only");
+
+                // Concurrent checkouts of a single copy: exactly one wins
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int i = 0; i < 16; i++) {
+                    results.add(clients.submit(() -> {
+                        start.await();
+                        return status(client, "POST", base + "/books/H1/checkout");
+                    }));
+                }
+                start.countDown();
+                int ok = 0;
+                for (Future<Integer> result : results) {
+                    int code = result.get();
+                    if (code == 200) ok++;
+                    else if (code != 409) throw new RuntimeException("Unexpected status " + code);
+                }
+                if (ok != 1) throw new RuntimeException("Expected one successful checkout, got " + ok);
+            } catch (Exception e) {
+                throw new RuntimeException(e.getMessage(), e);
+            } finally {
+                clients.shutdown();
+                server.stop();
+            }
+        }
+
+        private static int status(HttpClient client, String method, String url) throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .method(method, HttpRequest.BodyPublishers.noBody()).build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+
         private void testFinalAndImmutability() {
             // Test that ISBN is immutable
             String originalIsbn = digitalBook.getIsbn();
@@ -282,13 +1126,28 @@ public class Main {
             runTest("Dependency Injection (Constructor injection)", this::testDependencyInjection);
             runTest("Generic Bounds and Type Safety", this::testGenericTypeFiltering);
             runTest("Final keyword and Immutability", this::testFinalAndImmutability);
+            runTest("Interned Symbols (Shared author, format, location values)", this::testSymbolInterning);
+            runTest("Cached and Streaming Display Rendering", this::testCachedRendering);
+            runTest("Interface Defaults for Existing Implementations", this::testInterfaceDefaults);
+            runTest("Binary Codec Round Trips", this::testBinaryCodec);
+            runTest("Streaming JSON Writer", this::testJsonWriter);
+            runTest("HTTP Routing and Concurrent Checkout", this::testHttpServer);
             runTest("Package-private Access", this::testPackagePrivateAccess);
             
             System.out.println("\n🎯 Testing Business Logic:");
             runTest("Polymorphic Collections (Mixed book types)", this::testPolymorphicCollection);
             runTest("Polymorphic Search Functionality", this::testPolymorphicSearch);
+            runTest("Fuzzy Search and Autocomplete", this::testFuzzyAutocomplete);
             runTest("Checkout with Polymorphic Behavior", this::testCheckoutFunctionality);
             runTest("Polymorphic Reporting", this::testAvailabilityReport);
+            runTest("Lending Policy Rules", this::testLendingPolicy);
+            runTest("Patron Loan Limits Under Contention", this::testPatronLoanContention);
+            runTest("Location Index and Shelf Audit", this::testLocationIndex);
+            runTest("Multi-copy Inventory", this::testMultiCopyInventory);
+            runTest("Availability Follows the Inventory", this::testAvailabilityFollowsInventory);
+            runTest("Tiered Catalog (Off-heap cold titles)", this::testTieredCatalog);
+            runTest("Usage Analytics (Minute/hour/day rollups)", this::testUsageAnalytics);
+            runTest("Deterministic Lending Simulation", this::testSimulationReplay);
             
             System.out.println("\n============================================================");
             System.out.println("📊 RESULTS: " + testsPassed + " passed, " + testsFailed + " failed");
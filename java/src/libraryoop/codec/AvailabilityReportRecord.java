@@ -0,0 +1,61 @@
+// File: src/libraryoop/codec/AvailabilityReportRecord.java
+package libraryoop.codec;
+
+import libraryoop.services.AvailabilityReport;
+import libraryoop.services.TypeReport;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+// Lazy view over an encoded AvailabilityReport - type entries are scanned only on request
+public class AvailabilityReportRecord {
+    private static final int TOTAL_OFFSET = BinaryCodec.HEADER_SIZE;
+    private static final int AVAILABLE_OFFSET = TOTAL_OFFSET + 4;
+    private static final int CHECKED_OUT_OFFSET = AVAILABLE_OFFSET + 4;
+    private static final int AVERAGE_OFFSET = CHECKED_OUT_OFFSET + 4;
+    private static final int TYPE_COUNT_OFFSET = AVERAGE_OFFSET + 8;
+    private static final int TYPES_OFFSET = TYPE_COUNT_OFFSET + 2;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+
+    AvailabilityReportRecord(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public int getLength() { return buffer.getInt(offset); }
+    public int getTotalBooks() { return buffer.getInt(offset + TOTAL_OFFSET); }
+    public int getAvailableBooks() { return buffer.getInt(offset + AVAILABLE_OFFSET); }
+    public int getCheckedOutBooks() { return buffer.getInt(offset + CHECKED_OUT_OFFSET); }
+    public double getAverageCheckoutPeriod() { return buffer.getDouble(offset + AVERAGE_OFFSET); }
+    public int getTypeCount() { return buffer.getShort(offset + TYPE_COUNT_OFFSET) & 0xFFFF; }
+
+    // Null when the type is absent; compares names without decoding them
+    public TypeReport getTypeReport(String typeName) {
+        int position = offset + TYPES_OFFSET;
+        for (int i = 0; i < getTypeCount(); i++) {
+            int length = BinaryCodec.stringLength(buffer, position);
+            int next = BinaryCodec.skipString(buffer, position);
+            if (Utf8.equals(buffer, position + 2, length, typeName)) {
+                return new TypeReport(buffer.getInt(next), buffer.getInt(next + 4));
+            }
+            position = next + 8;
+        }
+        return null;
+    }
+
+    public AvailabilityReport toAvailabilityReport() {
+        Map<String, TypeReport> byType = new HashMap<>();
+        int position = offset + TYPES_OFFSET;
+        for (int i = 0; i < getTypeCount(); i++) {
+            String name = BinaryCodec.getString(buffer, position);
+            position = BinaryCodec.skipString(buffer, position);
+            byType.put(name, new TypeReport(buffer.getInt(position), buffer.getInt(position + 4)));
+            position += 8;
+        }
+        return new AvailabilityReport(getTotalBooks(), getAvailableBooks(), getCheckedOutBooks(),
+                                      byType, getAverageCheckoutPeriod());
+    }
+}
@@ -0,0 +1,221 @@
+// File: src/libraryoop/codec/BinaryCodec.java
+package libraryoop.codec;
+
+import libraryoop.models.*;
+import libraryoop.services.AvailabilityReport;
+import libraryoop.services.CheckoutResult;
+import libraryoop.services.TypeReport;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+// Compact binary wire format for the models and service results
+//
+// Every record starts with [int length][byte tag], so a reader can skip records without
+// decoding them. Strings are [u16 byteLength][UTF-8 bytes]; 0xFFFF marks null.
+// Multi-byte values use the buffer's byte order (big-endian unless the caller changes it).
+// An encode that fails - BufferOverflowException or a string too long for the format - leaves
+// the buffer's position where it was, so callers can flush and retry.
+public final class BinaryCodec {
+    public static final byte TAG_DIGITAL_BOOK = 1;
+    public static final byte TAG_PHYSICAL_BOOK = 2;
+    public static final byte TAG_AUDIO_BOOK = 3;
+    public static final byte TAG_CHECKOUT_RESULT = 10;
+    public static final byte TAG_AVAILABILITY_REPORT = 20;
+    public static final byte TAG_TYPE_REPORT = 30;
+
+    static final int HEADER_SIZE = 5;
+    static final int NULL_STRING = 0xFFFF;
+    static final int MAX_STRING_BYTES = 0xFFFE;
+
+    private BinaryCodec() {}
+
+    // Book: header, flags, int extra, int id, then isbn, title, author, ext1, ext2
+    //   Digital:  ext1 = fileFormat
+    //   Physical: ext1 = location, ext2 = condition
+    //   Audio:    ext1 = narrator, extra = durationMinutes
+    public static void encode(Book book, ByteBuffer buffer) {
+        if (book == null) throw new IllegalArgumentException("Book must be declared");
+
+        int start = buffer.position();
+        try {
+            beginRecord(buffer, tagOf(book));
+            buffer.put((byte) (book.isAvailable() ? 1 : 0));
+
+            String ext1 = null;
+            String ext2 = null;
+            int extra = 0;
+            if (book instanceof DigitalBook) {
+                ext1 = ((DigitalBook) book).getFileFormat();
+            } else if (book instanceof PhysicalBook) {
+                ext1 = ((PhysicalBook) book).getLocation();
+                ext2 = ((PhysicalBook) book).getCondition();
+            } else {
+                ext1 = ((AudioBook) book).getNarrator();
+                extra = ((AudioBook) book).getDurationMinutes();
+            }
+            buffer.putInt(extra);
+            buffer.putInt(book.getId());
+            putString(buffer, book.getIsbn());
+            putString(buffer, book.getTitle());
+            putString(buffer, book.getAuthor());
+            putString(buffer, ext1);
+            putString(buffer, ext2);
+            endRecord(buffer, start);
+        } catch (BufferOverflowException | IllegalArgumentException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    // CheckoutResult: header, flags (success, has period), int period, then message, error, dueDate, notification
+    public static void encode(CheckoutResult result, ByteBuffer buffer) {
+        if (result == null) throw new IllegalArgumentException("CheckoutResult must be declared");
+
+        int start = buffer.position();
+        try {
+            beginRecord(buffer, TAG_CHECKOUT_RESULT);
+            Integer period = result.getCheckoutPeriod();
+            buffer.put((byte) ((result.isSuccess() ? 1 : 0) | (period != null ? 2 : 0)));
+            buffer.putInt(period != null ? period : 0);
+            putString(buffer, result.getMessage());
+            putString(buffer, result.getErrorMessage());
+            putString(buffer, result.getDueDate());
+            putString(buffer, result.getNotification());
+            endRecord(buffer, start);
+        } catch (BufferOverflowException | IllegalArgumentException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    // AvailabilityReport: header, total, available, checkedOut, average, u16 type count, then (name, total, available)*
+    public static void encode(AvailabilityReport report, ByteBuffer buffer) {
+        if (report == null) throw new IllegalArgumentException("AvailabilityReport must be declared");
+
+        int start = buffer.position();
+        try {
+            beginRecord(buffer, TAG_AVAILABILITY_REPORT);
+            buffer.putInt(report.getTotalBooks());
+            buffer.putInt(report.getAvailableBooks());
+            buffer.putInt(report.getCheckedOutBooks());
+            buffer.putDouble(report.getAverageCheckoutPeriod());
+
+            Map<String, TypeReport> byType = report.getByType();
+            buffer.putShort((short) byType.size());
+            for (Map.Entry<String, TypeReport> entry : byType.entrySet()) {
+                putString(buffer, entry.getKey());
+                buffer.putInt(entry.getValue().getTotal());
+                buffer.putInt(entry.getValue().getAvailable());
+            }
+            endRecord(buffer, start);
+        } catch (BufferOverflowException | IllegalArgumentException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    // TypeReport: header, total, available
+    public static void encode(TypeReport report, ByteBuffer buffer) {
+        if (report == null) throw new IllegalArgumentException("TypeReport must be declared");
+
+        int start = buffer.position();
+        try {
+            beginRecord(buffer, TAG_TYPE_REPORT);
+            buffer.putInt(report.getTotal());
+            buffer.putInt(report.getAvailable());
+            endRecord(buffer, start);
+        } catch (BufferOverflowException | IllegalArgumentException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    // Readers take an absolute offset and never move the buffer's position
+    public static BookRecord readBook(ByteBuffer buffer, int offset) {
+        byte tag = buffer.get(offset + 4);
+        if (tag != TAG_DIGITAL_BOOK && tag != TAG_PHYSICAL_BOOK && tag != TAG_AUDIO_BOOK) {
+            throw new IllegalArgumentException("Not a book record: tag " + tag);
+        }
+        return new BookRecord(buffer, offset);
+    }
+
+    public static CheckoutResultRecord readCheckoutResult(ByteBuffer buffer, int offset) {
+        expectTag(buffer, offset, TAG_CHECKOUT_RESULT);
+        return new CheckoutResultRecord(buffer, offset);
+    }
+
+    public static AvailabilityReportRecord readAvailabilityReport(ByteBuffer buffer, int offset) {
+        expectTag(buffer, offset, TAG_AVAILABILITY_REPORT);
+        return new AvailabilityReportRecord(buffer, offset);
+    }
+
+    public static TypeReport readTypeReport(ByteBuffer buffer, int offset) {
+        expectTag(buffer, offset, TAG_TYPE_REPORT);
+        return new TypeReport(buffer.getInt(offset + HEADER_SIZE), buffer.getInt(offset + HEADER_SIZE + 4));
+    }
+
+    public static int recordLength(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset);
+    }
+
+    public static byte recordTag(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + 4);
+    }
+
+    // Shared helpers for the record views
+    static int stringLength(ByteBuffer buffer, int offset) {
+        return buffer.getShort(offset) & 0xFFFF;
+    }
+
+    // Offset just past the string starting at offset
+    static int skipString(ByteBuffer buffer, int offset) {
+        int length = stringLength(buffer, offset);
+        return offset + 2 + (length == NULL_STRING ? 0 : length);
+    }
+
+    static String getString(ByteBuffer buffer, int offset) {
+        int length = stringLength(buffer, offset);
+        return length == NULL_STRING ? null : Utf8.get(buffer, offset + 2, length);
+    }
+
+    private static byte tagOf(Book book) {
+        if (book instanceof DigitalBook) return TAG_DIGITAL_BOOK;
+        if (book instanceof PhysicalBook) return TAG_PHYSICAL_BOOK;
+        if (book instanceof AudioBook) return TAG_AUDIO_BOOK;
+        throw new IllegalArgumentException("Unsupported book type: " + book.getClass().getSimpleName());
+    }
+
+    private static void beginRecord(ByteBuffer buffer, byte tag) {
+        buffer.putInt(0); // patched in endRecord
+        buffer.put(tag);
+    }
+
+    private static void endRecord(ByteBuffer buffer, int start) {
+        buffer.putInt(start, buffer.position() - start);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) NULL_STRING);
+            return;
+        }
+        int length = Utf8.encodedLength(value);
+        if (length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("String too long for wire format: " + length + " bytes");
+        }
+        if (buffer.remaining() < 2 + length) {
+            throw new BufferOverflowException();
+        }
+        buffer.putShort((short) length);
+        Utf8.put(buffer, value);
+    }
+
+    private static void expectTag(ByteBuffer buffer, int offset, byte tag) {
+        byte actual = buffer.get(offset + 4);
+        if (actual != tag) {
+            throw new IllegalArgumentException("Expected record tag " + tag + ", found " + actual);
+        }
+    }
+}
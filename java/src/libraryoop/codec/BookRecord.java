@@ -0,0 +1,96 @@
+// File: src/libraryoop/codec/BookRecord.java
+package libraryoop.codec;
+
+import libraryoop.models.*;
+
+import java.nio.ByteBuffer;
+
+// Lazy view over an encoded book - fields are decoded only when asked for
+public class BookRecord {
+    private static final int FLAGS_OFFSET = BinaryCodec.HEADER_SIZE;
+    private static final int EXTRA_OFFSET = FLAGS_OFFSET + 1;
+    private static final int ID_OFFSET = EXTRA_OFFSET + 4;
+    private static final int ISBN_OFFSET = ID_OFFSET + 4;
+    private static final int AVAILABLE = 1;
+    private static final int DELETED = 2; // set in place by stores that keep superseded records
+
+    private final ByteBuffer buffer;
+    private final int offset;
+
+    BookRecord(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public int getLength() { return buffer.getInt(offset); }
+    public byte getTag() { return buffer.get(offset + 4); }
+    public boolean isAvailable() { return (buffer.get(offset + FLAGS_OFFSET) & AVAILABLE) != 0; }
+    public boolean isDeleted() { return (buffer.get(offset + FLAGS_OFFSET) & DELETED) != 0; }
+
+    // Flags the record as superseded without moving anything, so a store can leave it in its
+    // buffer for sequential scans to skip
+    public void markDeleted() {
+        buffer.put(offset + FLAGS_OFFSET, (byte) (buffer.get(offset + FLAGS_OFFSET) | DELETED));
+    }
+    public int getId() { return buffer.getInt(offset + ID_OFFSET); }
+
+    public String getIsbn() { return BinaryCodec.getString(buffer, field(0)); }
+    public String getTitle() { return BinaryCodec.getString(buffer, field(1)); }
+    public String getAuthor() { return BinaryCodec.getString(buffer, field(2)); }
+
+    public Class<? extends Book> getType() {
+        switch (getTag()) {
+            case BinaryCodec.TAG_DIGITAL_BOOK: return DigitalBook.class;
+            case BinaryCodec.TAG_PHYSICAL_BOOK: return PhysicalBook.class;
+            default: return AudioBook.class;
+        }
+    }
+
+    // Same rule as Book.matchesQuery, reading only the title and author
+    public boolean matchesQuery(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            return false;
+        }
+
+        String lowerQuery = query.toLowerCase();
+        return getTitle().toLowerCase().contains(lowerQuery) ||
+               getAuthor().toLowerCase().contains(lowerQuery);
+    }
+
+    // Key comparison straight against the encoded bytes
+    public boolean hasIsbn(String isbn) {
+        int position = field(0);
+        return isbn != null && Utf8.equals(buffer, position + 2, BinaryCodec.stringLength(buffer, position), isbn);
+    }
+
+    // Materializes a full model object; ID and availability are carried over
+    public Book toBook() {
+        int id = getId();
+        String isbn = getIsbn();
+        String title = getTitle();
+        String author = getAuthor();
+        String ext1 = BinaryCodec.getString(buffer, field(3));
+
+        Book book;
+        switch (getTag()) {
+            case BinaryCodec.TAG_DIGITAL_BOOK:
+                book = new DigitalBook(id, title, author, isbn, ext1);
+                break;
+            case BinaryCodec.TAG_PHYSICAL_BOOK:
+                book = new PhysicalBook(id, title, author, isbn, ext1, BinaryCodec.getString(buffer, field(4)));
+                break;
+            default:
+                book = new AudioBook(id, title, author, isbn, ext1, buffer.getInt(offset + EXTRA_OFFSET));
+        }
+        book.setAvailability(isAvailable());
+        return book;
+    }
+
+    private int field(int index) {
+        int position = offset + ISBN_OFFSET;
+        for (int i = 0; i < index; i++) {
+            position = BinaryCodec.skipString(buffer, position);
+        }
+        return position;
+    }
+}
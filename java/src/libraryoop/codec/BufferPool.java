@@ -0,0 +1,44 @@
+// File: src/libraryoop/codec/BufferPool.java
+package libraryoop.codec;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pool of fixed-size direct buffers so encoding never allocates on the hot path
+public class BufferPool {
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    public BufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize <= 0) throw new IllegalArgumentException("Buffer size must be positive");
+        if (maxPooled < 0) throw new IllegalArgumentException("Max pooled buffers cannot be negative");
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooled.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.capacity() != bufferSize) return;
+        // Drop extras instead of growing without bound after a burst
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        free.offer(buffer);
+    }
+
+    public int getBufferSize() { return bufferSize; }
+    public int getPooledCount() { return pooled.get(); }
+}
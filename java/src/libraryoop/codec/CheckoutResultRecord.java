@@ -0,0 +1,49 @@
+// File: src/libraryoop/codec/CheckoutResultRecord.java
+package libraryoop.codec;
+
+import libraryoop.services.CheckoutResult;
+
+import java.nio.ByteBuffer;
+
+// Lazy view over an encoded CheckoutResult
+public class CheckoutResultRecord {
+    private static final int FLAGS_OFFSET = BinaryCodec.HEADER_SIZE;
+    private static final int PERIOD_OFFSET = FLAGS_OFFSET + 1;
+    private static final int STRINGS_OFFSET = PERIOD_OFFSET + 4;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+
+    CheckoutResultRecord(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public int getLength() { return buffer.getInt(offset); }
+    public boolean isSuccess() { return (buffer.get(offset + FLAGS_OFFSET) & 1) != 0; }
+
+    public Integer getCheckoutPeriod() {
+        boolean hasPeriod = (buffer.get(offset + FLAGS_OFFSET) & 2) != 0;
+        return hasPeriod ? buffer.getInt(offset + PERIOD_OFFSET) : null;
+    }
+
+    public String getMessage() { return BinaryCodec.getString(buffer, field(0)); }
+    public String getErrorMessage() { return BinaryCodec.getString(buffer, field(1)); }
+    public String getDueDate() { return BinaryCodec.getString(buffer, field(2)); }
+    public String getNotification() { return BinaryCodec.getString(buffer, field(3)); }
+
+    public CheckoutResult toCheckoutResult() {
+        if (getCheckoutPeriod() == null) {
+            return new CheckoutResult(isSuccess(), getErrorMessage());
+        }
+        return new CheckoutResult(isSuccess(), getMessage(), getDueDate(), getCheckoutPeriod(), getNotification());
+    }
+
+    private int field(int index) {
+        int position = offset + STRINGS_OFFSET;
+        for (int i = 0; i < index; i++) {
+            position = BinaryCodec.skipString(buffer, position);
+        }
+        return position;
+    }
+}
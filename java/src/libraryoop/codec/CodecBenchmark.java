@@ -0,0 +1,132 @@
+// File: src/libraryoop/codec/CodecBenchmark.java
+package libraryoop.codec;
+
+import libraryoop.models.*;
+import libraryoop.server.JsonWriter;
+import libraryoop.services.CheckoutResult;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Encode/decode throughput and size of the binary format versus the JSON writer
+//
+//   java libraryoop.codec.CodecBenchmark [records] [rounds]
+public class CodecBenchmark {
+    private static long sink;
+
+    public static void main(String[] args) throws IOException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < records; i++) {
+            String isbn = String.format("%010d", i);
+            switch (i % 3) {
+                case 0: books.add(new DigitalBook("Java Programming Vol. " + i, "Jane Developer", isbn, "pdf")); break;
+                case 1: books.add(new PhysicalBook("Clean Code Vol. " + i, "Robert Martin", isbn, "Section A", "Excellent")); break;
+                default: books.add(new AudioBook("Design Patterns Vol. " + i, "Gang of Four", isbn, "John Narrator", 480));
+            }
+        }
+        CheckoutResult result = new CheckoutResult(true, "Book checked out successfully", "Due in 14 days", 14,
+                                                   "Notification: 'Clean Code' checked out. Due in 14 days");
+
+        BufferPool pool = new BufferPool(1 << 20, 4);
+
+        System.out.printf("%-28s %12s %12s%n", "case", "ns/record", "bytes/record");
+        for (int round = 0; round < rounds; round++) {
+            boolean report = round == rounds - 1; // earlier rounds are JIT warm-up
+            binaryBooks(books, pool, report);
+            jsonBooks(books, report);
+            binaryCheckout(result, records, pool, report);
+            jsonCheckout(result, records, report);
+        }
+    }
+
+    private static void binaryBooks(List<Book> books, BufferPool pool, boolean report) {
+        ByteBuffer buffer = pool.acquire();
+        long bytes = 0;
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        int index = 0;
+        while (index < books.size()) {
+            buffer.clear();
+            long start = System.nanoTime();
+            int first = index;
+            try {
+                while (index < books.size()) {
+                    try {
+                        BinaryCodec.encode(books.get(index), buffer);
+                    } catch (java.nio.BufferOverflowException e) {
+                        break; // position is left at the end of the last whole record
+                    }
+                    index++;
+                }
+            } finally {
+                encodeNanos += System.nanoTime() - start;
+            }
+            bytes += buffer.position();
+
+            // Lazy decode: touch the availability flag and title, leave the rest encoded
+            start = System.nanoTime();
+            int offset = 0;
+            for (int i = first; i < index; i++) {
+                BookRecord record = BinaryCodec.readBook(buffer, offset);
+                if (record.isAvailable()) sink += record.getTitle().length();
+                offset += record.getLength();
+            }
+            decodeNanos += System.nanoTime() - start;
+        }
+        pool.release(buffer);
+
+        if (report) {
+            print("binary book encode", encodeNanos, books.size(), bytes);
+            print("binary book lazy decode", decodeNanos, books.size(), bytes);
+        }
+    }
+
+    private static void jsonBooks(List<Book> books, boolean report) throws IOException {
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (Book book : books) {
+            StringWriter out = new StringWriter(256);
+            new JsonWriter(out).book(book);
+            bytes += out.toString().getBytes(StandardCharsets.UTF_8).length;
+        }
+        long nanos = System.nanoTime() - start;
+        if (report) print("json book encode", nanos, books.size(), bytes);
+    }
+
+    private static void binaryCheckout(CheckoutResult result, int count, BufferPool pool, boolean report) {
+        ByteBuffer buffer = pool.acquire();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            buffer.clear();
+            BinaryCodec.encode(result, buffer);
+            sink += BinaryCodec.readCheckoutResult(buffer, 0).getCheckoutPeriod();
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = (long) buffer.position() * count;
+        pool.release(buffer);
+        if (report) print("binary checkout round-trip", nanos, count, bytes);
+    }
+
+    private static void jsonCheckout(CheckoutResult result, int count, boolean report) throws IOException {
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            StringWriter out = new StringWriter(256);
+            new JsonWriter(out).checkoutResult(result);
+            bytes += out.toString().getBytes(StandardCharsets.UTF_8).length;
+        }
+        long nanos = System.nanoTime() - start;
+        if (report) print("json checkout encode", nanos, count, bytes);
+    }
+
+    private static void print(String name, long nanos, int records, long bytes) {
+        System.out.printf("%-28s %12.1f %12.1f%n", name, nanos / (double) records, bytes / (double) records);
+    }
+}
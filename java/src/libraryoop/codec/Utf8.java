@@ -0,0 +1,146 @@
+// File: src/libraryoop/codec/Utf8.java
+package libraryoop.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// UTF-8 helpers that work char-by-char against a buffer - no intermediate byte[] per string
+//
+// The one encoder for both the wire format and rendered text. Unpaired surrogates become '?', as
+// String.getBytes does, so the output is always valid UTF-8 and matches what the JDK produces.
+public final class Utf8 {
+    private static final byte REPLACEMENT = (byte) '?';
+
+    private Utf8() {}
+
+    public static int encodedLength(CharSequence value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                       && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    public static void put(ByteBuffer buffer, CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                putCodePoint(buffer, Character.toCodePoint(c, value.charAt(++i)));
+            } else {
+                putChar(buffer, c);
+            }
+        }
+    }
+
+    static String get(ByteBuffer buffer, int offset, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Compares without decoding - used for key lookups over encoded records
+    static boolean equals(ByteBuffer buffer, int offset, int length, String value) {
+        if (encodedLength(value) != length) return false;
+        int pos = offset;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                return value.equals(get(buffer, offset, length));
+            }
+            if (buffer.get(pos++) != (byte) c) return false;
+        }
+        return true;
+    }
+
+    // Any char that is not half of a pair; a lone surrogate is written as the replacement
+    private static void putChar(ByteBuffer buffer, char c) {
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isSurrogate(c)) {
+            buffer.put(REPLACEMENT);
+        } else {
+            buffer.put((byte) (0xE0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    private static void putCodePoint(ByteBuffer buffer, int codePoint) {
+        buffer.put((byte) (0xF0 | (codePoint >> 18)));
+        buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+        buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+        buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+    }
+
+    // Appendable over the same encoder, so text can be rendered straight into a buffer with no
+    // intermediate String. A surrogate pair may be split across appends; call finish() once done
+    // so a dangling high surrogate is written too.
+    public static final class Sink implements Appendable {
+        private final ByteBuffer out;
+        private char pendingHigh;
+
+        public Sink(ByteBuffer out) {
+            if (out == null) throw new IllegalArgumentException("Buffer must be declared");
+            this.out = out;
+        }
+
+        @Override
+        public Sink append(CharSequence csq) {
+            return csq == null ? append("null") : append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Sink append(CharSequence csq, int start, int end) {
+            if (csq == null) return append("null", start, end);
+            for (int i = start; i < end; i++) append(csq.charAt(i));
+            return this;
+        }
+
+        @Override
+        public Sink append(char c) {
+            if (pendingHigh != 0) {
+                char high = pendingHigh;
+                pendingHigh = 0;
+                if (Character.isLowSurrogate(c)) {
+                    putCodePoint(out, Character.toCodePoint(high, c));
+                    return this;
+                }
+                putChar(out, high);
+            }
+            if (Character.isHighSurrogate(c)) {
+                pendingHigh = c;
+            } else {
+                putChar(out, c);
+            }
+            return this;
+        }
+
+        public void finish() {
+            if (pendingHigh != 0) {
+                char high = pendingHigh;
+                pendingHigh = 0;
+                putChar(out, high);
+            }
+        }
+    }
+}
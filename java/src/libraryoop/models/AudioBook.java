@@ -1,25 +1,44 @@
 // File: src/libraryoop/models/AudioBook.java
 package libraryoop.models;
 
+import java.io.IOException;
+import java.util.List;
+
 // Third implementation demonstrating polymorphism
 public class AudioBook extends Book {
-    private final String narrator;
+    private final int narratorId; // SymbolTable.NAMES, shared with authors
     private final int durationMinutes;
     
     public AudioBook(String title, String author, String isbn, String narrator, int durationMinutes) {
         super(title, author, isbn);
+        this.narratorId = internNarrator(narrator);
+        this.durationMinutes = checkDuration(durationMinutes);
+    }
+    
+    // Restores a book with a known ID (decoders, storage tiers)
+    public AudioBook(int id, String title, String author, String isbn, String narrator, int durationMinutes) {
+        super(id, title, author, isbn);
+        this.narratorId = internNarrator(narrator);
+        this.durationMinutes = checkDuration(durationMinutes);
+    }
+    
+    private static int internNarrator(String narrator) {
         if (narrator == null || narrator.trim().isEmpty()) {
             throw new IllegalArgumentException("Narrator cannot be null or empty");
         }
+        return SymbolTable.NAMES.intern(narrator.trim());
+    }
+    
+    private static int checkDuration(int durationMinutes) {
         if (durationMinutes <= 0) {
             throw new IllegalArgumentException("Duration must be positive");
         }
-        this.narrator = narrator.trim();
-        this.durationMinutes = durationMinutes;
+        return durationMinutes;
     }
     
     // Getter methods
-    public String getNarrator() { return narrator; }
+    public String getNarrator() { return SymbolTable.NAMES.get(narratorId); }
+    public int getNarratorId() { return narratorId; }
     public int getDurationMinutes() { return durationMinutes; }
     
     // Another different implementation
@@ -32,15 +51,31 @@ public class AudioBook extends Book {
         return durationMinutes / 60.0;
     }
     
+    // Hours to one decimal, rounded half up like "%.1f" but without the formatter or the locale
     @Override
-    public String getDisplayInfo() {
-        return super.getDisplayInfo() + " [Audio: " + narrator + ", " + 
-               String.format("%.1f", getDurationHours()) + "h]";
+    protected void renderDisplayInfo(Appendable out) throws IOException {
+        super.renderDisplayInfo(out);
+        int tenths = (durationMinutes + 3) / 6;
+        out.append(" [Audio: ").append(getNarrator()).append(", ");
+        appendDigits(out, tenths / 10);
+        out.append('.').append((char) ('0' + tenths % 10)).append("h]");
+    }
+
+    private static void appendDigits(Appendable out, int value) throws IOException {
+        if (value >= 10) appendDigits(out, value / 10);
+        out.append((char) ('0' + value % 10));
     }
     
     @Override
     public boolean matchesQuery(String query) {
         return super.matchesQuery(query) ||
-               (query != null && narrator.toLowerCase().contains(query.toLowerCase()));
+               (query != null && getNarrator().toLowerCase().contains(query.toLowerCase()));
+    }
+    
+    @Override
+    public List<String> getSearchTerms() {
+        List<String> terms = super.getSearchTerms();
+        terms.add(getNarrator());
+        return terms;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,7 @@
+// File: src/libraryoop/models/AvailabilityListener.java
+package libraryoop.models;
+
+// Callback for availability transitions - fired only when the value actually changes
+public interface AvailabilityListener {
+    void availabilityChanged(Book book, boolean available);
+}
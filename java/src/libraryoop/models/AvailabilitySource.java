@@ -0,0 +1,10 @@
+// File: src/libraryoop/models/AvailabilitySource.java
+package libraryoop.models;
+
+// Owner of a catalogued book's availability, e.g. its copy inventory; the book's flag mirrors it
+public interface AvailabilitySource {
+    boolean isAvailable();
+
+    // Lendable.setAvailability on a bound book lands here and must keep its contract
+    void setAvailable(boolean available);
+}
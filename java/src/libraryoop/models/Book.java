@@ -1,7 +1,18 @@
 // File: src/libraryoop/models/Book.java
 package libraryoop.models;
 
+import libraryoop.codec.Utf8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 // Abstract base class demonstrating inheritance and encapsulation
 public abstract class Book implements Lendable, Searchable {
@@ -9,11 +20,31 @@ public abstract class Book implements Lendable, Searchable {
     private final int id;
     private final String isbn; // Final - immutable after construction
     private String title;
-    private String author;
-    private boolean isAvailable = true;
+    private int authorId; // SymbolTable.NAMES - prolific authors are stored once
+    private final AtomicBoolean isAvailable = new AtomicBoolean(true);
+    // Set once the book is catalogued; from then on the flag only mirrors the source
+    private volatile AvailabilitySource availabilitySource;
+    // Shared empty array until someone subscribes, so unobserved books carry no extra objects
+    private static final AvailabilityListener[] NO_LISTENERS = new AvailabilityListener[0];
+    private volatile AvailabilityListener[] listeners = NO_LISTENERS;
+    // Rendered text, built on first request and dropped when a field it shows changes. The version
+    // moves on every change, so a render that raced with a setter is not kept.
+    private static final AtomicIntegerFieldUpdater<Book> RENDER_VERSION =
+        AtomicIntegerFieldUpdater.newUpdater(Book.class, "renderVersion");
+    private volatile int renderVersion;
+    private volatile String displayInfo;
+    private volatile String description; // toString, which also shows availability
     
     // Protected constructor for inheritance only
     protected Book(String title, String author, String isbn) {
+        this(new Random().nextInt(9000) + 1000, title, author, isbn); // Simple ID generation
+    }
+    
+    // Restores a book under an ID it was given before, e.g. when decoding a stored copy
+    protected Book(int id, String title, String author, String isbn) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("ID must be positive");
+        }
         if (title == null || title.trim().isEmpty()) {
             throw new IllegalArgumentException("Title cannot be null or empty");
         }
@@ -24,49 +55,167 @@ public abstract class Book implements Lendable, Searchable {
             throw new IllegalArgumentException("ISBN cannot be null or empty");
         }
         
-        this.id = new Random().nextInt(9000) + 1000; // Simple ID generation
+        this.id = id;
         this.title = title.trim();
-        this.author = author.trim();
+        this.authorId = SymbolTable.NAMES.intern(author.trim());
         this.isbn = isbn.trim();
     }
     
     // Public getters demonstrating controlled access
     public int getId() { return id; }
     public String getTitle() { return title; }
-    public String getAuthor() { return author; }
+    public String getAuthor() { return SymbolTable.NAMES.get(authorId); }
+    public int getAuthorId() { return authorId; }
     public String getIsbn() { return isbn; }
     
     // Protected setter for inheritance
     protected void setTitle(String title) {
         if (title != null && !title.trim().isEmpty()) {
             this.title = title.trim();
+            invalidateRendering();
         }
     }
     
     protected void setAuthor(String author) {
         if (author != null && !author.trim().isEmpty()) {
-            this.author = author.trim();
+            this.authorId = SymbolTable.NAMES.intern(author.trim());
+            invalidateRendering();
         }
     }
     
     // Interface implementation
     @Override
     public boolean isAvailable() {
-        return isAvailable;
+        return isAvailable.get();
     }
     
+    // A catalogued book passes the change to its source, so the flag can never disagree with it
     @Override
     public void setAvailability(boolean available) {
-        this.isAvailable = available;
+        AvailabilitySource source = availabilitySource;
+        if (source != null) {
+            try {
+                source.setAvailable(available);
+            } finally {
+                refreshAvailability();
+            }
+        } else if (this.isAvailable.getAndSet(available) != available) {
+            fireAvailabilityChanged(available);
+        }
+    }
+    
+    // Hands availability to its owner; a book can be bound to one source only
+    public synchronized void bindAvailability(AvailabilitySource source) {
+        if (source == null) throw new IllegalArgumentException("AvailabilitySource must be declared");
+        if (availabilitySource != null && availabilitySource != source) {
+            throw new IllegalStateException("Book " + isbn + " is already catalogued");
+        }
+        availabilitySource = source;
+        refreshAvailability();
+    }
+    
+    // Re-reads the source, notifying listeners on a change; returns true if the flag changed.
+    // Reads and writes happen under the source's monitor, so the last refresh after any change
+    // always leaves the flag right.
+    public boolean refreshAvailability() {
+        AvailabilitySource source = availabilitySource;
+        if (source == null) return false;
+        synchronized (source) {
+            boolean available = source.isAvailable();
+            if (isAvailable.getAndSet(available) == available) return false;
+            fireAvailabilityChanged(available);
+            return true;
+        }
+    }
+    
+    public synchronized void addAvailabilityListener(AvailabilityListener listener) {
+        if (listener == null) throw new IllegalArgumentException("Listener must be declared");
+        AvailabilityListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+    
+    public synchronized void removeAvailabilityListener(AvailabilityListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                AvailabilityListener[] updated = new AvailabilityListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, updated, 0, i);
+                System.arraycopy(listeners, i + 1, updated, i, listeners.length - i - 1);
+                listeners = updated.length == 0 ? NO_LISTENERS : updated;
+                return;
+            }
+        }
+    }
+    
+    private void fireAvailabilityChanged(boolean available) {
+        RENDER_VERSION.incrementAndGet(this);
+        description = null;
+        for (AvailabilityListener listener : listeners) {
+            listener.availabilityChanged(this, available);
+        }
     }
     
     // Abstract method - must be implemented by subclasses
     @Override
     public abstract int getCheckoutPeriod();
     
-    // Virtual method - can be overridden by subclasses
-    public String getDisplayInfo() {
-        return "'" + title + "' by " + author;
+    // Cached after the first call. Final so the cached, streamed and byte renderings can never
+    // disagree: subclasses change the text by overriding renderDisplayInfo
+    public final String getDisplayInfo() {
+        String cached = displayInfo;
+        if (cached == null) {
+            int version = renderVersion;
+            StringBuilder out = new StringBuilder(64);
+            try {
+                renderDisplayInfo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // StringBuilder never throws
+            }
+            cached = out.toString();
+            displayInfo = cached;
+            if (renderVersion != version) displayInfo = null;
+        }
+        return cached;
+    }
+    
+    // Streams the display text without building it; a cached copy is reused but never created here,
+    // so rendering a whole catalog page does not pin a string on every book
+    public void writeDisplayInfo(Appendable out) throws IOException {
+        String cached = displayInfo;
+        if (cached != null) {
+            out.append(cached);
+        } else {
+            renderDisplayInfo(out);
+        }
+    }
+    
+    // UTF-8 from the buffer's position; if it does not fit, the position is restored and
+    // BufferOverflowException is thrown
+    public void writeDisplayInfo(ByteBuffer out) {
+        int start = out.position();
+        try {
+            Utf8.Sink sink = new Utf8.Sink(out);
+            writeDisplayInfo(sink);
+            sink.finish();
+        } catch (BufferOverflowException e) {
+            out.position(start);
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Utf8.Sink never throws
+        }
+    }
+    
+    // The rendering hook behind getDisplayInfo and both writeDisplayInfo forms - subclasses append
+    // their details after the title and author
+    protected void renderDisplayInfo(Appendable out) throws IOException {
+        out.append('\'').append(title).append("' by ").append(getAuthor());
+    }
+    
+    // Subclasses call this after changing a field their display text shows
+    protected void invalidateRendering() {
+        RENDER_VERSION.incrementAndGet(this);
+        displayInfo = null;
+        description = null;
     }
     
     // Default interface implementation
@@ -78,7 +227,16 @@ public abstract class Book implements Lendable, Searchable {
         
         String lowerQuery = query.toLowerCase();
         return title.toLowerCase().contains(lowerQuery) ||
-               author.toLowerCase().contains(lowerQuery);
+               getAuthor().toLowerCase().contains(lowerQuery);
+    }
+    
+    // Title and author; subclasses add their own names
+    @Override
+    public List<String> getSearchTerms() {
+        List<String> terms = new ArrayList<>();
+        terms.add(title);
+        terms.add(getAuthor());
+        return terms;
     }
     
     // Override equals and hashCode for proper object comparison
@@ -97,12 +255,19 @@ public abstract class Book implements Lendable, Searchable {
     
     @Override
     public String toString() {
-        return getClass().getSimpleName() + "{" +
-               "id=" + id +
-               ", title='" + title + '\'' +
-               ", author='" + author + '\'' +
-               ", isbn='" + isbn + '\'' +
-               ", isAvailable=" + isAvailable +
-               '}';
+        String cached = description;
+        if (cached == null) {
+            int version = renderVersion;
+            cached = getClass().getSimpleName() + "{" +
+                     "id=" + id +
+                     ", title='" + title + '\'' +
+                     ", author='" + getAuthor() + '\'' +
+                     ", isbn='" + isbn + '\'' +
+                     ", isAvailable=" + isAvailable.get() +
+                     '}';
+            description = cached;
+            if (renderVersion != version) description = null;
+        }
+        return cached;
     }
 }
\ No newline at end of file
@@ -1,23 +1,35 @@
 // File: src/libraryoop/models/DigitalBook.java
 package libraryoop.models;
 
+import java.io.IOException;
+
 // Concrete implementation demonstrating inheritance
 public class DigitalBook extends Book {
-    private final String fileFormat;
-    private final String downloadUrl;
+    private final int formatId; // SymbolTable.FORMATS
     
     public DigitalBook(String title, String author, String isbn, String fileFormat) {
         super(title, author, isbn);
+        this.formatId = internFormat(fileFormat);
+    }
+    
+    // Restores a book with a known ID (decoders, storage tiers)
+    public DigitalBook(int id, String title, String author, String isbn, String fileFormat) {
+        super(id, title, author, isbn);
+        this.formatId = internFormat(fileFormat);
+    }
+    
+    private static int internFormat(String fileFormat) {
         if (fileFormat == null || fileFormat.trim().isEmpty()) {
             throw new IllegalArgumentException("File format cannot be null or empty");
         }
-        this.fileFormat = fileFormat.trim();
-        this.downloadUrl = "/download/" + isbn + "." + fileFormat;
+        return SymbolTable.FORMATS.intern(fileFormat.trim());
     }
     
     // Getter methods
-    public String getFileFormat() { return fileFormat; }
-    public String getDownloadUrl() { return downloadUrl; }
+    public String getFileFormat() { return SymbolTable.FORMATS.get(formatId); }
+    public int getFileFormatId() { return formatId; }
+    // Built on request rather than stored: it is rarely read and unique per book
+    public String getDownloadUrl() { return "/download/" + getIsbn() + "." + getFileFormat(); }
     
     // Implementation of abstract method
     @Override
@@ -27,19 +39,20 @@ public class DigitalBook extends Book {
     
     // Method specific to digital books
     public String getDownloadLink() {
-        return downloadUrl;
+        return getDownloadUrl();
     }
     
     // Override virtual method
     @Override
-    public String getDisplayInfo() {
-        return super.getDisplayInfo() + " [Digital: " + fileFormat + "]";
+    protected void renderDisplayInfo(Appendable out) throws IOException {
+        super.renderDisplayInfo(out);
+        out.append(" [Digital: ").append(getFileFormat()).append(']');
     }
     
     // Override interface method with additional logic
     @Override
     public boolean matchesQuery(String query) {
         return super.matchesQuery(query) ||
-               (query != null && fileFormat.toLowerCase().contains(query.toLowerCase()));
+               (query != null && getFileFormat().toLowerCase().contains(query.toLowerCase()));
     }
 }
\ No newline at end of file
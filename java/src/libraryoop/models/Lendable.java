@@ -5,5 +5,9 @@ package libraryoop.models;
 public interface Lendable {
     boolean isAvailable();
     int getCheckoutPeriod();
+
+    // false takes the item out of lending. true makes it available again: for a catalogued book
+    // that reinstates the title and, if every copy is out, returns an anonymous loan. It throws
+    // IllegalStateException when only patron loans are out, as those must be returned by patron.
     void setAvailability(boolean available);
 }
\ No newline at end of file
@@ -1,18 +1,24 @@
 // File: src/libraryoop/models/PhysicalBook.java
 package libraryoop.models;
 
+import java.io.IOException;
+
 // Another concrete implementation
 public class PhysicalBook extends Book {
-    private final String location;
+    private final int locationId; // SymbolTable.LOCATIONS
     private String condition;
     
     public PhysicalBook(String title, String author, String isbn, String location, String condition) {
         super(title, author, isbn);
-        if (location == null || location.trim().isEmpty()) {
-            throw new IllegalArgumentException("Location cannot be null or empty");
-        }
-        this.location = location.trim();
-        this.condition = (condition != null && !condition.trim().isEmpty()) ? condition.trim() : "Good";
+        this.locationId = internLocation(location);
+        this.condition = defaultCondition(condition);
+    }
+    
+    // Restores a book with a known ID (decoders, storage tiers)
+    public PhysicalBook(int id, String title, String author, String isbn, String location, String condition) {
+        super(id, title, author, isbn);
+        this.locationId = internLocation(location);
+        this.condition = defaultCondition(condition);
     }
     
     // Convenience constructor with default condition
@@ -20,14 +26,27 @@ public class PhysicalBook extends Book {
         this(title, author, isbn, location, "Good");
     }
     
+    private static int internLocation(String location) {
+        if (location == null || location.trim().isEmpty()) {
+            throw new IllegalArgumentException("Location cannot be null or empty");
+        }
+        return SymbolTable.LOCATIONS.intern(location.trim());
+    }
+    
+    private static String defaultCondition(String condition) {
+        return (condition != null && !condition.trim().isEmpty()) ? condition.trim() : "Good";
+    }
+    
     // Getter methods
-    public String getLocation() { return location; }
+    public String getLocation() { return SymbolTable.LOCATIONS.get(locationId); }
+    public int getLocationId() { return locationId; }
     public String getCondition() { return condition; }
     
     // Setter for mutable field
     public void setCondition(String condition) {
         if (condition != null && !condition.trim().isEmpty()) {
             this.condition = condition.trim();
+            invalidateRendering();
         }
     }
     
@@ -39,14 +58,15 @@ public class PhysicalBook extends Book {
     
     // Override virtual method
     @Override
-    public String getDisplayInfo() {
-        return super.getDisplayInfo() + " [Physical: " + location + ", " + condition + "]";
+    protected void renderDisplayInfo(Appendable out) throws IOException {
+        super.renderDisplayInfo(out);
+        out.append(" [Physical: ").append(getLocation()).append(", ").append(condition).append(']');
     }
     
     // Override interface method
     @Override
     public boolean matchesQuery(String query) {
         return super.matchesQuery(query) ||
-               (query != null && location.toLowerCase().contains(query.toLowerCase()));
+               (query != null && getLocation().toLowerCase().contains(query.toLowerCase()));
     }
 }
\ No newline at end of file
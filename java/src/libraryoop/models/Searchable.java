@@ -1,7 +1,16 @@
 // File: src/libraryoop/models/Searchable.java
 package libraryoop.models;
 
+import java.util.Collections;
+import java.util.List;
+
 // Interface for searchable items
 public interface Searchable {
     boolean matchesQuery(String query);
+
+    // Names a user might type for this item; feeds autocomplete and fuzzy matching. Items written
+    // before the index only answer matchesQuery, so by default they offer no terms.
+    default List<String> getSearchTerms() {
+        return Collections.emptyList();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+// File: src/libraryoop/models/SymbolTable.java
+package libraryoop.models;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Canonical store for values that repeat across the catalog, each kept once under a compact int ID
+//
+// IDs are dense, start at 0 and are never reused, so they can index arrays and be compared with ==.
+// Lookups are lock-free; only the first sighting of a value takes the table's lock. Entries are
+// never removed, which suits vocabularies such as authors, formats and shelf locations that only
+// grow slowly - titles and ISBNs are unique per book and do not belong here.
+public class SymbolTable {
+    // Authors and narrators share one table: the same people often appear in both roles
+    public static final SymbolTable NAMES = new SymbolTable();
+    public static final SymbolTable FORMATS = new SymbolTable();
+    public static final SymbolTable LOCATIONS = new SymbolTable();
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private int size;
+
+    // ID for the value, adding it on first sight; the value should already be trimmed
+    public int intern(String value) {
+        if (value == null) throw new IllegalArgumentException("Symbol must be declared");
+        Integer id = ids.get(value);
+        return id != null ? id : add(value);
+    }
+
+    // The array is published before the map entry, so any ID handed out can be looked up
+    private synchronized int add(String value) {
+        Integer existing = ids.get(value);
+        if (existing != null) return existing;
+
+        String[] current = values;
+        if (size == current.length) current = Arrays.copyOf(current, size * 2);
+        current[size] = value;
+        values = current;
+        ids.put(value, size);
+        return size++;
+    }
+
+    public String get(int id) {
+        String[] current = values;
+        if (id < 0 || id >= current.length || current[id] == null) {
+            throw new IllegalArgumentException("Unknown symbol " + id);
+        }
+        return current[id];
+    }
+
+    // ID if the value has been interned, -1 otherwise; never adds
+    public int find(String value) {
+        Integer id = value == null ? null : ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,145 @@
+// File: src/libraryoop/server/HttpLoadTest.java
+package libraryoop.server;
+
+import libraryoop.models.AudioBook;
+import libraryoop.models.DigitalBook;
+import libraryoop.models.PhysicalBook;
+import libraryoop.services.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Load-test harness: drives LibraryHttpServer at increasing concurrency, reports throughput and tail latency
+//
+//   java libraryoop.server.HttpLoadTest [catalogSize] [secondsPerLevel] [concurrency...]
+public class HttpLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        // Read once, when the JDK server loads its config; see LibraryHttpServer
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        int catalogSize = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int[] levels = args.length > 2
+            ? Arrays.stream(args, 2, args.length).mapToInt(Integer::parseInt).toArray()
+            : new int[]{1, 8, 32, 128, 512};
+
+        BookService bookService = new BookServiceImpl(new LendingServiceImpl(), new NotificationServiceImpl());
+        for (int i = 0; i < catalogSize; i++) {
+            String isbn = String.format("%010d", i);
+            switch (i % 3) {
+                case 0: bookService.addBook(new DigitalBook("Title " + i, "Author " + (i % 500), isbn, "pdf")); break;
+                case 1: bookService.addBook(new PhysicalBook("Title " + i, "Author " + (i % 500), isbn, "Section " + (i % 20))); break;
+                default: bookService.addBook(new AudioBook("Title " + i, "Author " + (i % 500), isbn, "Narrator " + (i % 50), 60 + i % 600));
+            }
+        }
+
+        LibraryHttpServer server = new LibraryHttpServer(bookService, 0);
+        server.start();
+        try {
+            String base = "http://localhost:" + server.getPort();
+            System.out.println("Catalog: " + catalogSize + " books, " + seconds + "s per level");
+            System.out.printf("%12s %12s %10s %10s %10s %10s %8s%n",
+                "concurrency", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "errors");
+            for (int concurrency : levels) {
+                runLevel(base, catalogSize, concurrency, seconds);
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static void runLevel(String base, int catalogSize, int concurrency, int seconds) throws Exception {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Math.min(concurrency, 64));
+        HttpClient client = HttpClient.newBuilder()
+            .executor(clientExecutor)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            final long seed = w;
+            futures.add(workers.submit(() -> drive(client, base, catalogSize, deadline, new Random(seed))));
+        }
+
+        long errors = 0;
+        List<long[]> perWorker = new ArrayList<>();
+        int total = 0;
+        for (Future<long[]> future : futures) {
+            long[] latencies = future.get();
+            // Last slot carries the worker's error count
+            errors += latencies[latencies.length - 1];
+            perWorker.add(latencies);
+            total += latencies.length - 1;
+        }
+        workers.shutdown();
+        clientExecutor.shutdown();
+
+        long[] all = new long[total];
+        int pos = 0;
+        for (long[] latencies : perWorker) {
+            System.arraycopy(latencies, 0, all, pos, latencies.length - 1);
+            pos += latencies.length - 1;
+        }
+        Arrays.sort(all);
+
+        System.out.printf("%12d %12d %10.0f %10.2f %10.2f %10.2f %8d%n",
+            concurrency, total, total / (double) seconds,
+            percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999), errors);
+    }
+
+    // Request mix: 60% search, 30% lookup, 8% checkout, 2% report
+    private static long[] drive(HttpClient client, String base, int catalogSize, long deadline, Random random) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        long errors = 0;
+
+        while (System.nanoTime() < deadline) {
+            int roll = random.nextInt(100);
+            int id = random.nextInt(catalogSize);
+            HttpRequest request;
+            if (roll < 60) {
+                request = HttpRequest.newBuilder(URI.create(base + "/books?q=Author%20" + (id % 500))).GET().build();
+            } else if (roll < 90) {
+                request = HttpRequest.newBuilder(URI.create(base + "/books/" + String.format("%010d", id))).GET().build();
+            } else if (roll < 98) {
+                request = HttpRequest.newBuilder(URI.create(base + "/books/" + String.format("%010d", id) + "/checkout"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+            } else {
+                request = HttpRequest.newBuilder(URI.create(base + "/report")).GET().build();
+            }
+
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                // 409 is a legitimate "already checked out" answer, not a failure
+                if (response.statusCode() >= 500) errors++;
+            } catch (Exception e) {
+                errors++;
+                continue;
+            }
+            if (count == latencies.length - 1) {
+                latencies = Arrays.copyOf(latencies, latencies.length * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+
+        long[] result = Arrays.copyOf(latencies, count + 1);
+        result[count] = errors;
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,175 @@
+// File: src/libraryoop/server/JsonWriter.java
+package libraryoop.server;
+
+import libraryoop.models.*;
+import libraryoop.services.AvailabilityReport;
+import libraryoop.services.CheckoutResult;
+import libraryoop.services.TypeReport;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+// Streaming JSON writer - values go straight to the underlying Writer, no intermediate document
+public class JsonWriter {
+    private final Writer out;
+    private boolean needsComma = false;
+
+    public JsonWriter(Writer out) {
+        if (out == null) throw new IllegalArgumentException("Writer must be declared");
+        this.out = out;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        separate();
+        out.write('{');
+        needsComma = false;
+        return this;
+    }
+
+    public JsonWriter endObject() throws IOException {
+        out.write('}');
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        separate();
+        out.write('[');
+        needsComma = false;
+        return this;
+    }
+
+    public JsonWriter endArray() throws IOException {
+        out.write(']');
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter name(String name) throws IOException {
+        separate();
+        writeString(name);
+        out.write(':');
+        needsComma = false;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            out.write("null");
+        } else {
+            writeString(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(double value) throws IOException {
+        separate();
+        out.write(Double.isFinite(value) ? Double.toString(value) : "null");
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        needsComma = true;
+        return this;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // Domain helpers - one place that knows the wire shape of each type
+    public JsonWriter book(Book book) throws IOException {
+        beginObject()
+            .name("type").value(book.getClass().getSimpleName())
+            .name("isbn").value(book.getIsbn())
+            .name("title").value(book.getTitle())
+            .name("author").value(book.getAuthor())
+            .name("available").value(book.isAvailable())
+            .name("checkoutPeriod").value(book.getCheckoutPeriod());
+
+        if (book instanceof DigitalBook) {
+            DigitalBook digital = (DigitalBook) book;
+            name("fileFormat").value(digital.getFileFormat());
+            name("downloadUrl").value(digital.getDownloadUrl());
+        } else if (book instanceof PhysicalBook) {
+            PhysicalBook physical = (PhysicalBook) book;
+            name("location").value(physical.getLocation());
+            name("condition").value(physical.getCondition());
+        } else if (book instanceof AudioBook) {
+            AudioBook audio = (AudioBook) book;
+            name("narrator").value(audio.getNarrator());
+            name("durationMinutes").value(audio.getDurationMinutes());
+        }
+        return endObject();
+    }
+
+    public JsonWriter checkoutResult(CheckoutResult result) throws IOException {
+        beginObject().name("success").value(result.isSuccess());
+        if (result.isSuccess()) {
+            name("message").value(result.getMessage());
+            name("dueDate").value(result.getDueDate());
+            name("checkoutPeriod").value(result.getCheckoutPeriod());
+            name("notification").value(result.getNotification());
+        } else {
+            name("errorMessage").value(result.getErrorMessage());
+        }
+        return endObject();
+    }
+
+    public JsonWriter availabilityReport(AvailabilityReport report) throws IOException {
+        beginObject()
+            .name("totalBooks").value(report.getTotalBooks())
+            .name("availableBooks").value(report.getAvailableBooks())
+            .name("checkedOutBooks").value(report.getCheckedOutBooks())
+            .name("averageCheckoutPeriod").value(report.getAverageCheckoutPeriod())
+            .name("byType").beginObject();
+        for (Map.Entry<String, TypeReport> entry : report.getByType().entrySet()) {
+            name(entry.getKey()).beginObject()
+                .name("total").value(entry.getValue().getTotal())
+                .name("available").value(entry.getValue().getAvailable())
+                .endObject();
+        }
+        return endObject().endObject();
+    }
+
+    private void separate() throws IOException {
+        if (needsComma) {
+            out.write(',');
+            needsComma = false;
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+}
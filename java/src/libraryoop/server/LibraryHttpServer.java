@@ -0,0 +1,185 @@
+// File: src/libraryoop/server/LibraryHttpServer.java
+package libraryoop.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import libraryoop.models.Book;
+import libraryoop.services.BookService;
+import libraryoop.services.CheckoutResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Embedded HTTP front end for BookService - one (virtual, when available) thread per request
+//
+//   GET  /books?q=<query>          search
+//   GET  /books/<isbn>             lookup
+//   POST /books/<isbn>/checkout    checkout
+//   GET  /report                   availability report
+//
+// Chunked bodies go out as several small writes; without TCP_NODELAY each response waits on the
+// client's delayed ACK. Start the JVM with -Dsun.net.httpserver.nodelay=true in production.
+public class LibraryHttpServer {
+    private final BookService bookService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public LibraryHttpServer(BookService bookService, int port) throws IOException {
+        if (bookService == null) throw new IllegalArgumentException("BookService must be declared");
+
+        this.bookService = bookService;
+        this.executor = newRequestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.createContext("/books", this::handleBooks);
+        this.server.createContext("/report", this::handleReport);
+        this.server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Virtual threads need JDK 21+; looked up reflectively so the project still runs on older JDKs
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handleBooks(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            // Contexts match by prefix, so "/booksXYZ" lands here too
+            if (!path.equals("/books") && !path.startsWith("/books/")) {
+                sendError(exchange, 404, "No route for " + method + " " + path);
+                return;
+            }
+            String[] parts = path.substring("/books".length()).split("/");
+
+            if (parts.length <= 1 && "GET".equals(method)) {
+                search(exchange);
+            } else if (parts.length == 2 && "GET".equals(method)) {
+                lookup(exchange, parts[1]);
+            } else if (parts.length == 3 && "checkout".equals(parts[2]) && "POST".equals(method)) {
+                checkout(exchange, parts[1]);
+            } else {
+                sendError(exchange, 404, "No route for " + method + " " + path);
+            }
+        } catch (RuntimeException e) {
+            failed(exchange, e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleReport(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestURI().getPath().equals("/report")) {
+                sendError(exchange, 404, "No route for " + exchange.getRequestURI().getPath());
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Report is read-only");
+                return;
+            }
+            JsonWriter json = beginJson(exchange, 200);
+            json.availabilityReport(bookService.getAvailabilityReport());
+            json.flush();
+        } catch (RuntimeException e) {
+            failed(exchange, e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void search(HttpExchange exchange) throws IOException {
+        String query = queryParameter(exchange, "q");
+        List<Book> results = bookService.searchBooks(query);
+
+        JsonWriter json = beginJson(exchange, 200);
+        json.beginArray();
+        for (Book book : results) {
+            json.book(book);
+        }
+        json.endArray();
+        json.flush();
+    }
+
+    private void lookup(HttpExchange exchange, String isbn) throws IOException {
+        Book book = bookService.getBookByIsbn(isbn);
+        if (book == null) {
+            sendError(exchange, 404, "No book with ISBN " + isbn);
+            return;
+        }
+        JsonWriter json = beginJson(exchange, 200);
+        json.book(book);
+        json.flush();
+    }
+
+    private void checkout(HttpExchange exchange, String isbn) throws IOException {
+        CheckoutResult result = bookService.checkoutBook(isbn);
+        int status = 200;
+        if (!result.isSuccess()) {
+            status = bookService.getBookByIsbn(isbn) == null ? 404 : 409;
+        }
+        JsonWriter json = beginJson(exchange, status);
+        json.checkoutResult(result);
+        json.flush();
+    }
+
+    // Length 0 selects chunked transfer, so the body streams out as it is written
+    private JsonWriter beginJson(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        return new JsonWriter(new BufferedWriter(
+            new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)));
+    }
+
+    // Once a streamed body has started the status is already on the wire and cannot change;
+    // the client gets a truncated body and a second set of headers would only throw
+    private void failed(HttpExchange exchange, RuntimeException e) throws IOException {
+        if (exchange.getResponseCode() < 0) {
+            sendError(exchange, 500, e.getMessage());
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        JsonWriter json = beginJson(exchange, status);
+        json.beginObject().name("error").value(message).endObject();
+        json.flush();
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery == null) return null;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            if (key.equals(name)) {
+                return eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,201 @@
+// File: src/libraryoop/services/AvailabilityAnalytics.java
+package libraryoop.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// Lending activity per book type, pre-aggregated into minute, hour and day ring buffers
+//
+// Every event is counted into all three resolutions as it happens, so a trend query only reads
+// ring slots - raw events are never kept or rescanned. Each slot is tagged with the bucket it
+// currently holds; a slot is recycled when time moves a full ring past it. Memory is fixed by
+// the ring sizes and the number of book types, whatever the traffic.
+// A slot also keeps the loan level just before its first event, so a bucket with no events can
+// still report the level that held through it.
+public class AvailabilityAnalytics {
+    public static final int MAX_QUERY_BUCKETS = 100_000;
+
+    public enum Resolution {
+        MINUTE(60_000L, 180),        // last 3 hours
+        HOUR(3_600_000L, 24 * 14),   // last 2 weeks
+        DAY(86_400_000L, 400);       // a bit over a year
+
+        private final long millis;
+        private final int slots;
+
+        Resolution(long millis, int slots) {
+            this.millis = millis;
+            this.slots = slots;
+        }
+
+        public long getMillis() { return millis; }
+        public int getSlots() { return slots; }
+    }
+
+    private final LongSupplier clock;
+    private final Map<String, TypeSeries> byType = new ConcurrentHashMap<>();
+
+    public AvailabilityAnalytics() {
+        this(System::currentTimeMillis);
+    }
+
+    public AvailabilityAnalytics(LongSupplier clock) {
+        if (clock == null) throw new IllegalArgumentException("Clock must be declared");
+        this.clock = clock;
+    }
+
+    public void recordCheckout(String type) {
+        TypeSeries series = series(type);
+        long checkedOut = series.checkedOut.incrementAndGet();
+        series.record(clock.getAsLong(), Ring.CHECKOUTS, checkedOut - 1, checkedOut);
+    }
+
+    public void recordReturn(String type) {
+        TypeSeries series = series(type);
+        long checkedOut = series.checkedOut.decrementAndGet();
+        series.record(clock.getAsLong(), Ring.RETURNS, checkedOut + 1, checkedOut);
+    }
+
+    public void recordStockout(String type) {
+        TypeSeries series = series(type);
+        long checkedOut = series.checkedOut.get();
+        series.record(clock.getAsLong(), Ring.STOCKOUTS, checkedOut, checkedOut);
+    }
+
+    public long getCheckedOut(String type) {
+        TypeSeries series = byType.get(type);
+        return series == null ? 0 : series.checkedOut.get();
+    }
+
+    // Every bucket overlapping [fromMillis, toMillis), oldest first. A bucket with no events
+    // reports the loan level that held through it as its peak. Buckets older than the ring
+    // retention, or still in the future, come back as zeros, so a range longer than the
+    // retention still starts where it was asked to. Ranges over MAX_QUERY_BUCKETS buckets are
+    // rejected; use a coarser resolution.
+    public List<UsageBucket> query(String type, Resolution resolution, long fromMillis, long toMillis) {
+        if (resolution == null) throw new IllegalArgumentException("Resolution must be declared");
+        if (toMillis < fromMillis) throw new IllegalArgumentException("Range end is before its start");
+
+        long first = Math.floorDiv(fromMillis, resolution.millis);
+        long last = Math.floorDiv(toMillis - 1, resolution.millis);
+        if (last - first + 1 > MAX_QUERY_BUCKETS) {
+            throw new IllegalArgumentException("Range spans more than " + MAX_QUERY_BUCKETS + " " + resolution + " buckets");
+        }
+        long current = Math.floorDiv(clock.getAsLong(), resolution.millis);
+        long oldestKept = current - resolution.slots + 1;
+        TypeSeries series = byType.get(type);
+
+        UsageBucket[] buckets = new UsageBucket[(int) (last - first + 1)];
+        if (series != null) {
+            // Walk back from now: a quiet bucket holds the level seen just before the next event
+            Ring ring = series.rings[resolution.ordinal()];
+            long level = series.checkedOut.get();
+            for (long bucket = current; bucket >= Math.max(first, oldestKept); bucket--) {
+                UsageBucket read = ring.read(bucket, resolution.millis);
+                if (read != null) {
+                    level = ring.opening(bucket);
+                } else if (bucket <= last) {
+                    read = new UsageBucket(bucket * resolution.millis, 0, 0, 0, level);
+                }
+                if (bucket <= last) buckets[(int) (bucket - first)] = read;
+            }
+        }
+
+        List<UsageBucket> result = new ArrayList<>(buckets.length);
+        for (int i = 0; i < buckets.length; i++) {
+            result.add(buckets[i] != null ? buckets[i] : new UsageBucket((first + i) * resolution.millis, 0, 0, 0, 0));
+        }
+        return result;
+    }
+
+    private TypeSeries series(String type) {
+        if (type == null) throw new IllegalArgumentException("Type must be declared");
+        return byType.computeIfAbsent(type, t -> new TypeSeries());
+    }
+
+    private static class TypeSeries {
+        final AtomicLong checkedOut = new AtomicLong();
+        final Ring[] rings = new Ring[Resolution.values().length];
+
+        TypeSeries() {
+            for (Resolution resolution : Resolution.values()) {
+                rings[resolution.ordinal()] = new Ring(resolution.slots);
+            }
+        }
+
+        void record(long now, int field, long before, long after) {
+            for (Resolution resolution : Resolution.values()) {
+                rings[resolution.ordinal()].add(Math.floorDiv(now, resolution.millis), field, before, after);
+            }
+        }
+    }
+
+    // Fixed ring of tagged slots; counters are updated lock-free, recycling a slot takes its lock
+    private static class Ring {
+        static final int CHECKOUTS = 0;
+        static final int RETURNS = 1;
+        static final int STOCKOUTS = 2;
+        static final int PEAK = 3;
+        static final int OPENING = 4; // loans out just before the bucket's first event
+        static final int FIELDS = 5;
+        static final long UNUSED = Long.MIN_VALUE;
+
+        final int slots;
+        final AtomicLongArray tags;
+        final AtomicLongArray counters;
+
+        Ring(int slots) {
+            this.slots = slots;
+            this.tags = new AtomicLongArray(slots);
+            this.counters = new AtomicLongArray(slots * FIELDS);
+            for (int i = 0; i < slots; i++) tags.set(i, UNUSED);
+        }
+
+        // before and after are the loan levels either side of the event
+        void add(long bucket, int field, long before, long after) {
+            int slot = (int) Math.floorMod(bucket, (long) slots);
+            long tag = tags.get(slot);
+            if (tag != bucket) {
+                if (tag > bucket) return; // late event for a bucket already recycled
+                recycle(slot, bucket, before);
+            }
+            int base = slot * FIELDS;
+            counters.incrementAndGet(base + field);
+            long peak;
+            do {
+                peak = counters.get(base + PEAK);
+            } while (after > peak && !counters.compareAndSet(base + PEAK, peak, after));
+        }
+
+        // Counters are reset before the new tag is published, so writers that see the tag
+        // never count into stale values. The level carried in is the bucket's starting peak.
+        private synchronized void recycle(int slot, long bucket, long opening) {
+            long tag = tags.get(slot);
+            if (tag >= bucket) return;
+            int base = slot * FIELDS;
+            for (int f = 0; f < FIELDS; f++) counters.set(base + f, 0);
+            counters.set(base + PEAK, opening);
+            counters.set(base + OPENING, opening);
+            tags.set(slot, bucket);
+        }
+
+        long opening(long bucket) {
+            return counters.get((int) Math.floorMod(bucket, (long) slots) * FIELDS + OPENING);
+        }
+
+        // Null if the bucket saw no events
+        UsageBucket read(long bucket, long millis) {
+            int slot = (int) Math.floorMod(bucket, (long) slots);
+            int base = slot * FIELDS;
+            if (tags.get(slot) != bucket) return null;
+            return new UsageBucket(bucket * millis,
+                counters.get(base + CHECKOUTS), counters.get(base + RETURNS),
+                counters.get(base + STOCKOUTS), counters.get(base + PEAK));
+        }
+    }
+}
@@ -2,9 +2,23 @@
 package libraryoop.services;
 
 import libraryoop.models.Book;
+import libraryoop.models.PhysicalBook;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 // Main service interface
+//
+// Only the core operations are abstract. Everything added later has a default built on them
+// (one copy per title, no patron limits, linear scans), so existing implementations keep compiling
+// and behave as they did; BookServiceImpl overrides all of them.
+//
+// Books handed out may be copies: an implementation can move idle titles out of the heap (see
+// BookServiceImpl.rebalanceCatalog), after which a reference kept from an earlier call no longer
+// backs the catalog. Availability changes still reach the title, as they go through its copy
+// inventory; any other change must be made on a Book freshly fetched through getBookByIsbn.
 public interface BookService {
     void addBook(Book book);
     List<Book> getAllBooks();
@@ -13,4 +27,114 @@ public interface BookService {
     CheckoutResult checkoutBook(String isbn);
     AvailabilityReport getAvailabilityReport();
     List<Book> searchBooks(String query);
-}
\ No newline at end of file
+
+    // Whether addCopies is implemented; callers check this rather than catching the exception
+    default boolean supportsCopies() {
+        return false;
+    }
+
+    default int addCopies(String isbn, int count) {
+        throw new UnsupportedOperationException("This BookService keeps one copy per title");
+    }
+
+    default int getCopyCount(String isbn) {
+        return getBookByIsbn(isbn) == null ? 0 : 1;
+    }
+
+    default int getAvailableCopies(String isbn) {
+        Book book = getBookByIsbn(isbn);
+        return book != null && book.isAvailable() ? 1 : 0;
+    }
+
+    default CheckoutResult checkoutBook(String isbn, LendingContext context) {
+        return checkoutBook(isbn);
+    }
+
+    default CheckoutResult checkoutBook(String isbn, String patronId, LendingContext context) {
+        return checkoutBook(isbn, context);
+    }
+
+    // Without copy tracking a return just puts the title back on the shelf
+    default boolean returnBook(String isbn, String patronId) {
+        Book book = getBookByIsbn(isbn);
+        if (book == null || book.isAvailable()) return false;
+        book.setAvailability(true);
+        return true;
+    }
+
+    default int getLoanCount(String patronId) {
+        return 0;
+    }
+
+    // Whether getUsageTrend is implemented
+    default boolean supportsUsageTrend() {
+        return false;
+    }
+
+    // One bucket per resolution step across the whole range; steps past the history kept come
+    // back as zeros (see AvailabilityAnalytics.query)
+    default List<UsageBucket> getUsageTrend(Class<? extends Book> bookClass, AvailabilityAnalytics.Resolution resolution,
+                                            long fromMillis, long toMillis) {
+        throw new UnsupportedOperationException("This BookService keeps no usage history");
+    }
+
+    // Search terms of matching books that start with the prefix
+    default List<String> autocomplete(String prefix, int limit) {
+        Set<String> suggestions = new LinkedHashSet<>();
+        if (prefix == null || prefix.trim().isEmpty()) return new ArrayList<>();
+        String lowerPrefix = prefix.trim().toLowerCase();
+        for (Book book : searchBooks(prefix.trim())) {
+            for (String term : book.getSearchTerms()) {
+                if (suggestions.size() < limit && term.toLowerCase().startsWith(lowerPrefix)) suggestions.add(term);
+            }
+        }
+        return new ArrayList<>(suggestions);
+    }
+
+    // Exact substring matching only; maxEdits is ignored
+    default List<Book> fuzzySearch(String query, int maxEdits, int limit) {
+        List<Book> results = searchBooks(query);
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    default List<PhysicalBook> getAvailableAtLocation(String location) {
+        String shelf = location == null ? "" : location.trim();
+        List<PhysicalBook> result = new ArrayList<>();
+        for (PhysicalBook book : getBooksByType(PhysicalBook.class)) {
+            if (book.isAvailable() && book.getLocation().equalsIgnoreCase(shelf)) {
+                result.add(book);
+            }
+        }
+        return result;
+    }
+
+    // Copies, not titles: a title with five copies on the shelf counts five
+    default int countAvailableCopiesAt(String location) {
+        int copies = 0;
+        for (PhysicalBook book : getAvailableAtLocation(location)) copies += getAvailableCopies(book.getIsbn());
+        return copies;
+    }
+
+    default List<PhysicalBook> getAvailableUnderLocation(String locationPrefix) {
+        String prefix = locationPrefix == null ? "" : locationPrefix.trim().toLowerCase();
+        List<PhysicalBook> result = new ArrayList<>();
+        for (PhysicalBook book : getBooksByType(PhysicalBook.class)) {
+            if (book.isAvailable() && book.getLocation().toLowerCase().startsWith(prefix)) result.add(book);
+        }
+        return result;
+    }
+
+    default int auditShelf(String location, Map<String, String> conditionByIsbn) {
+        if (conditionByIsbn == null) throw new IllegalArgumentException("Conditions must be declared");
+        String shelf = location == null ? "" : location.trim();
+        int updated = 0;
+        for (Map.Entry<String, String> entry : conditionByIsbn.entrySet()) {
+            Book book = getBookByIsbn(entry.getKey());
+            if (book instanceof PhysicalBook && ((PhysicalBook) book).getLocation().equalsIgnoreCase(shelf)) {
+                ((PhysicalBook) book).setCondition(entry.getValue());
+                updated++;
+            }
+        }
+        return updated;
+    }
+}
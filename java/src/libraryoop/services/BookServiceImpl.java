@@ -1,19 +1,33 @@
 // File: src/libraryoop/services/BookServiceImpl.java
 package libraryoop.services;
 
+import libraryoop.codec.BookRecord;
 import libraryoop.models.Book;
 import libraryoop.models.DigitalBook;
+import libraryoop.models.PhysicalBook;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 // Main service class demonstrating dependency injection and composition
 public class BookServiceImpl implements BookService {
-    private final Set<Book> books;
+    private final TieredCatalog books;
+    private final Map<String, CopyInventory> inventories; // isbn -> copies; holders are tracked per copy
+    private final PatronLoanLedger loanLedger;
+    private final LocationIndex locationIndex;
+    private final SearchIndex searchIndex;
     private final LendingService lendingService;
     private final NotificationService notificationService;
+    private final AvailabilityAnalytics analytics;
     
     public BookServiceImpl(LendingService lendingService, NotificationService notificationService) {
+        this(lendingService, notificationService, new AvailabilityAnalytics());
+    }
+
+    public BookServiceImpl(LendingService lendingService, NotificationService notificationService,
+                           AvailabilityAnalytics analytics) {
         /*
         TODO: Student should implement proper constructor
         - Initialize books list
@@ -30,11 +44,30 @@ public class BookServiceImpl implements BookService {
         */
         if (lendingService == null) throw new IllegalArgumentException("LendingService must be declared");
         if (notificationService == null) throw new IllegalArgumentException("NotificationService must be declared");
+        if (analytics == null) throw new IllegalArgumentException("AvailabilityAnalytics must be declared");
 
         // Minimal implementation to allow compilation
-        this.books = new HashSet<>();
+        this.books = new TieredCatalog();
+        this.inventories = new ConcurrentHashMap<>();
+        this.loanLedger = new PatronLoanLedger();
+        this.locationIndex = new LocationIndex(this::getBookByIsbn, this::viewBook,
+                                               isbn -> getAvailableCopies(isbn) > 0, this::getAvailableCopies);
+        this.searchIndex = new SearchIndex();
         this.lendingService = lendingService;
         this.notificationService = notificationService;
+        this.analytics = analytics;
+        this.books.setTierListener(new TieredCatalog.TierListener() {
+            @Override
+            public void promoted(Book book) {
+                book.bindAvailability(inventoryOf(book.getIsbn()));
+                if (book instanceof PhysicalBook) locationIndex.add((PhysicalBook) book);
+            }
+
+            @Override
+            public void demoted(Book book) {
+                if (book instanceof PhysicalBook) locationIndex.detach((PhysicalBook) book);
+            }
+        });
     }
     
     @Override
@@ -42,16 +75,58 @@ public class BookServiceImpl implements BookService {
         // Minimal implementation to allow compilation
         if (book == null) throw new IllegalArgumentException("Book must be declared");
         
-        for (Book book_search : books) {
-            if (book_search.getIsbn() == book.getIsbn()) throw new IllegalArgumentException("Book ISBN already exists, no duplicates");
+        // Inventory goes in first so a book is never visible without its copies. From here on the
+        // inventory owns the book's availability.
+        String type = book.getClass().getSimpleName();
+        CopyInventory inventory = new CopyInventory(1, () -> analytics.recordReturn(type));
+        if (inventories.putIfAbsent(book.getIsbn(), inventory) != null) {
+            throw new IllegalArgumentException("Book ISBN already exists, use addCopies for more copies");
+        }
+        try {
+            book.bindAvailability(inventory);
+        } catch (IllegalStateException e) {
+            inventories.remove(book.getIsbn(), inventory);
+            throw new IllegalArgumentException(e.getMessage());
+        }
+        books.putIfAbsent(book);
+        if (book instanceof PhysicalBook) {
+            locationIndex.add((PhysicalBook) book);
         }
+        searchIndex.add(book);
+    }
+    
+    @Override
+    public boolean supportsCopies() {
+        return true;
+    }
 
-        books.add(book);
+    @Override
+    public int addCopies(String isbn, int count) {
+        CopyInventory inventory = inventoryOf(isbn);
+        if (inventory == null) throw new IllegalArgumentException("No book with ISBN " + isbn);
+        inventory.addCopies(count);
+        getBookByIsbn(isbn).refreshAvailability();
+        return inventory.getTotalCopies();
+    }
+
+    @Override
+    public int getCopyCount(String isbn) {
+        CopyInventory inventory = inventoryOf(isbn);
+        return inventory == null ? 0 : inventory.getTotalCopies();
+    }
+
+    @Override
+    public int getAvailableCopies(String isbn) {
+        CopyInventory inventory = inventoryOf(isbn);
+        return inventory == null ? 0 : inventory.getAvailableCopies();
     }
     
     @Override
     public List<Book> getAllBooks() {
-        return new ArrayList<>(books);
+        List<Book> result = new ArrayList<>(books.size());
+        books.forEachHot(result::add);
+        result.addAll(coldSnapshots(record -> true));
+        return result;
     }
     
     @Override
@@ -80,10 +155,13 @@ public class BookServiceImpl implements BookService {
         
         // Minimal implementation for compilation
         List<T> result = new ArrayList<>();
-        for (Book book : books) {
+        books.forEachHot(book -> {
             if (bookClass.isInstance(book)) {
                 result.add(bookClass.cast(book));
             }            
+        });
+        for (Book book : coldSnapshots(record -> bookClass.isAssignableFrom(record.getType()))) {
+            result.add(bookClass.cast(book));
         }
         return result;
     }
@@ -91,38 +169,121 @@ public class BookServiceImpl implements BookService {
     @Override
     public Book getBookByIsbn(String isbn) {
         if (isbn == null || isbn.trim().isEmpty()) return null;
-        for (Book book : books) {
-            if (book.getIsbn().equals(isbn)) {
-                return book;
-            }
+        return books.get(isbn);
+    }
+
+    // Lookup for read-only queries: cold titles stay cold and come back as snapshots
+    private Book viewBook(String isbn) {
+        Book book = books.peek(isbn);
+        if (book != null) book.bindAvailability(inventoryOf(isbn));
+        return book;
+    }
+
+    // Builds Books only for the cold records the filter accepts. Snapshots are bound to their
+    // inventory, so their availability is current even if the encoded flag is not.
+    private List<Book> coldSnapshots(Predicate<BookRecord> filter) {
+        List<Book> snapshots = new ArrayList<>();
+        books.forEachCold(record -> {
+            if (filter.test(record)) snapshots.add(record.toBook());
+        });
+        for (Book book : snapshots) {
+            book.bindAvailability(inventoryOf(book.getIsbn()));
         }
-        return null;
+        return snapshots;
     }
     
     @Override
     public CheckoutResult checkoutBook(String isbn) {
-        /*
-        public CheckoutResult(boolean success, String errorMessage) {
-            this.success = success;
-            this.message = null;
-            this.errorMessage = errorMessage;
-            this.dueDate = null;
-            this.checkoutPeriod = null;
-            this.notification = null;
+        return checkoutBook(isbn, LendingContext.today());
+    }
+
+    // Lending rules are evaluated on every checkout through the injected LendingService
+    @Override
+    public CheckoutResult checkoutBook(String isbn, LendingContext context) {
+        return checkout(isbn, null, context);
+    }
+
+    @Override
+    public CheckoutResult checkoutBook(String isbn, String patronId, LendingContext context) {
+        if (patronId == null || patronId.trim().isEmpty()) {
+            return new CheckoutResult(false, "Patron must be declared");
         }
-        */
+        return checkout(isbn, patronId, context);
+    }
+
+    // Patron loans must be returned by the same patron; anonymous loans with a null patron.
+    // The patron's loan slot is released first and restored if they hold no copy of the title,
+    // so a failed return leaves the ledger and the inventory as they were.
+    @Override
+    public boolean returnBook(String isbn, String patronId) {
+        if (patronId != null && patronId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Patron must be declared");
+        }
+        Book book = getBookByIsbn(isbn);
+        if (book == null) return false;
+
+        if (patronId != null && !loanLedger.tryRelease(patronId)) return false;
+        int available = inventoryOf(isbn).release(patronId);
+        if (available < 0) {
+            if (patronId != null) loanLedger.restore(patronId);
+            return false;
+        }
+        analytics.recordReturn(book.getClass().getSimpleName());
+        if (available == 1) book.refreshAvailability();
+        return true;
+    }
+
+    @Override
+    public int getLoanCount(String patronId) {
+        return loanLedger.getLoanCount(patronId);
+    }
+
+    // A null patron is an anonymous loan. The patron's loan slot is reserved before a copy is
+    // claimed and handed back if no copy is left, so neither the limit nor the inventory can be
+    // over-committed.
+    private CheckoutResult checkout(String isbn, String patronId, LendingContext context) {
+        boolean patron = patronId != null;
         try {
             Book book = getBookByIsbn(isbn);
-            if (!book.isAvailable()) {
+            if (book == null) {
+                throw new IllegalArgumentException("No book with ISBN " + isbn);
+            }
+            // Terms are evaluated once, so a policy reload cannot split one checkout across two rule sets
+            CheckoutTerms terms = lendingService.getCheckoutTerms(book, context);
+            if (!terms.isAllowed()) {
                 throw new IllegalArgumentException("Book is not available");
             }
-            book.setAvailability(false);
-            return new CheckoutResult(true, "Book checked out successfully", String.format("Due in %d days",book.getCheckoutPeriod()), book.getCheckoutPeriod(), "notification message");
+            if (patron && !loanLedger.tryReserve(patronId, terms.getMaxLoans())) {
+                throw new IllegalArgumentException("Patron has reached the loan limit of " + terms.getMaxLoans());
+            }
+            CopyInventory inventory = inventoryOf(isbn);
+            if (inventory.acquire(patronId) < 0) {
+                if (patron) loanLedger.release(patronId);
+                throw new IllegalArgumentException("Book is not available");
+            }
+            String type = book.getClass().getSimpleName();
+            analytics.recordCheckout(type);
+            // Only 0 <-> 1 crossings need a refresh; the one that flips the flag counts the stockout
+            if (inventory.getAvailableCopies() == 0 && book.refreshAvailability() && !book.isAvailable()) {
+                analytics.recordStockout(type);
+            }
+            return checkedOut(book, terms);
 
         } catch (Exception e) {
-            return new CheckoutResult(false, "Not implemented");
+            return new CheckoutResult(false, e.getMessage());
         }
     }
+
+    private CopyInventory inventoryOf(String isbn) {
+        if (isbn == null) return null;
+        return inventories.get(isbn);
+    }
+
+    private CheckoutResult checkedOut(Book book, CheckoutTerms terms) {
+        String notification = notificationService.sendCheckoutNotification(book.getTitle(), terms.getDueDate());
+        return new CheckoutResult(true, "Book checked out successfully", terms.getDueDate(),
+                                  terms.getCheckoutPeriod(), notification);
+    }
     
     @Override
     public AvailabilityReport getAvailabilityReport() {
@@ -155,42 +316,121 @@ public class BookServiceImpl implements BookService {
                                     totalBooks - availableBooks, byType, averageCheckoutPeriod);
         */
         
-        // Placeholder implementation that should fail tests        
+        // Counts are per copy, read from the inventories. The report is served to clients, so it
+        // never touches availability or promotes cold titles; checkout periods are fixed per type,
+        // so cold titles need only one decoded book per type.
         double totalCheckoutPeriod = 0;
-        int totalBooks = books.size();
         int availableBooks = 0;
         Map<String, TypeReport> byType = new HashMap<>();
         HashMap<String, Integer> countByType = new HashMap<>();
         HashMap<String, Integer> countAvailableByType = new HashMap<>();
-        for (Book book : books) {
+        HashMap<String, Integer> periodByType = new HashMap<>();
+        books.forEachHot(book -> {
             String curType = book.getClass().getSimpleName();
-            if (book.isAvailable()) {
-                totalCheckoutPeriod += book.getCheckoutPeriod();
-                countAvailableByType.put(curType, countAvailableByType.getOrDefault(curType, 0) + (book.isAvailable() ? 1 : 0));
-                book.setAvailability(false);
-                totalCheckoutPeriod += book.getCheckoutPeriod();
-            }
-            countByType.put(curType, countByType.getOrDefault(curType, 0) + 1);
-
+            periodByType.putIfAbsent(curType, book.getCheckoutPeriod());
+            countCopies(curType, book.getIsbn(), countByType, countAvailableByType);
+        });
+        books.forEachCold(record -> {
+            String curType = record.getType().getSimpleName();
+            periodByType.computeIfAbsent(curType, t -> record.toBook().getCheckoutPeriod());
+            countCopies(curType, record.getIsbn(), countByType, countAvailableByType);
+        });
+        int totalBooks = 0;
+        for (Map.Entry<String, Integer> entry : countByType.entrySet()) {
+            totalBooks += entry.getValue();
+            totalCheckoutPeriod += (double) periodByType.get(entry.getKey()) * entry.getValue();
         }
         for (String type : new String[]{"DigitalBook","PhysicalBook","AudioBook"}) {
             byType.put(type, new TypeReport(countByType.getOrDefault(type,0), countAvailableByType.getOrDefault(type,0)));
-        } 
+        }
         availableBooks = countAvailableByType.values().stream().reduce(0, Integer::sum);
-        return new AvailabilityReport(totalBooks, availableBooks, totalBooks-availableBooks, byType, totalCheckoutPeriod/(totalBooks-availableBooks));
+        double averageCheckoutPeriod = totalBooks > 0 ? totalCheckoutPeriod / totalBooks : 0;
+        return new AvailabilityReport(totalBooks, availableBooks, totalBooks-availableBooks, byType, averageCheckoutPeriod);
+    }
+
+    private void countCopies(String type, String isbn, Map<String, Integer> countByType,
+                             Map<String, Integer> countAvailableByType) {
+        CopyInventory inventory = inventoryOf(isbn);
+        countByType.merge(type, inventory.getTotalCopies(), Integer::sum);
+        countAvailableByType.merge(type, inventory.getAvailableCopies(), Integer::sum);
     }
     
+    @Override
+    public boolean supportsUsageTrend() {
+        return true;
+    }
+
+    @Override
+    public List<UsageBucket> getUsageTrend(Class<? extends Book> bookClass, AvailabilityAnalytics.Resolution resolution,
+                                           long fromMillis, long toMillis) {
+        if (bookClass == null) throw new IllegalArgumentException("Book type must be declared");
+        return analytics.query(bookClass.getSimpleName(), resolution, fromMillis, toMillis);
+    }
+
     @Override
     public List<Book> searchBooks(String query) {
         if (query == null || query.trim().isEmpty()) { 
             return new ArrayList<>();
         }
         ArrayList<Book> output = new ArrayList<>();
-        for (Book book : books) {
+        books.forEachHot(book -> {
             if (book.matchesQuery(query)) {
                 output.add(book);
             }
-        }
+        });
+        output.addAll(coldSnapshots(record -> record.matchesQuery(query)));
         return output;
     }
-}
\ No newline at end of file
+
+    // Exact prefix completions first; prefixes long enough to hold a typo are topped up with
+    // one-edit matches, so "Robret Ma" still suggests "Robert Martin"
+    @Override
+    public List<String> autocomplete(String prefix, int limit) {
+        List<String> suggestions = searchIndex.complete(prefix, limit);
+        if (prefix != null && suggestions.size() < limit && prefix.trim().length() >= 4) {
+            Set<String> merged = new LinkedHashSet<>(suggestions);
+            merged.addAll(searchIndex.completeFuzzy(prefix, 1, limit));
+            suggestions = new ArrayList<>(merged);
+        }
+        return suggestions.size() > limit ? suggestions.subList(0, limit) : suggestions;
+    }
+
+    @Override
+    public List<Book> fuzzySearch(String query, int maxEdits, int limit) {
+        List<Book> results = new ArrayList<>();
+        for (String isbn : searchIndex.search(query, maxEdits, limit)) {
+            Book book = viewBook(isbn);
+            if (book != null) results.add(book);
+        }
+        return results;
+    }
+
+    // Moves all but the maxHotTitles most accessed titles to off-heap storage; returns how many moved
+    public int rebalanceCatalog(int maxHotTitles) {
+        return books.rebalance(maxHotTitles);
+    }
+
+    public int getHotTitleCount() { return books.getHotCount(); }
+    public int getColdTitleCount() { return books.getColdCount(); }
+    public long getOffHeapBytes() { return books.getOffHeapBytes(); }
+
+    @Override
+    public List<PhysicalBook> getAvailableAtLocation(String location) {
+        return locationIndex.getAvailableAt(location);
+    }
+
+    @Override
+    public int countAvailableCopiesAt(String location) {
+        return locationIndex.countAvailableAt(location);
+    }
+
+    @Override
+    public List<PhysicalBook> getAvailableUnderLocation(String locationPrefix) {
+        return locationIndex.getAvailableUnder(locationPrefix);
+    }
+
+    @Override
+    public int auditShelf(String location, Map<String, String> conditionByIsbn) {
+        return locationIndex.auditShelf(location, conditionByIsbn);
+    }
+}
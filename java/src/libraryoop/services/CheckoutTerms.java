@@ -0,0 +1,23 @@
+// File: src/libraryoop/services/CheckoutTerms.java
+package libraryoop.services;
+
+// Lending terms for one checkout, evaluated together so they all come from the same rules
+public class CheckoutTerms {
+    private final boolean allowed;
+    private final int maxLoans;
+    private final int checkoutPeriod;
+    private final String dueDate;
+
+    public CheckoutTerms(boolean allowed, int maxLoans, int checkoutPeriod, String dueDate) {
+        if (maxLoans < 0) throw new IllegalArgumentException("Max loans cannot be negative");
+        this.allowed = allowed;
+        this.maxLoans = maxLoans;
+        this.checkoutPeriod = checkoutPeriod;
+        this.dueDate = dueDate;
+    }
+
+    public boolean isAllowed() { return allowed; }
+    public int getMaxLoans() { return maxLoans; }
+    public int getCheckoutPeriod() { return checkoutPeriod; }
+    public String getDueDate() { return dueDate; }
+}
@@ -0,0 +1,151 @@
+// File: src/libraryoop/services/CopyInventory.java
+package libraryoop.services;
+
+import libraryoop.models.AvailabilitySource;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Copy-level inventory for one ISBN: a bitset of copies on the shelf plus an available-copy counter
+//
+// The counter works as a semaphore. A checkout first reserves a copy by decrementing it, then
+// claims a set bit with a CAS; the reservation guarantees such a bit exists. Returns set the bit
+// before incrementing the counter, so a reserved claimer always finds one.
+// It is also the availability source of its book: a title is available while it is not
+// withdrawn and a copy is on the shelf.
+// Holders are patron IDs; a null patron is an anonymous loan, kept under a private key that no
+// patron ID can equal.
+public class CopyInventory implements AvailabilitySource {
+    private static final Object ANONYMOUS = new Object();
+
+    // One AtomicLong per 64 copies; growing copies the references, so CASes in flight stay valid
+    private volatile AtomicLong[] words = new AtomicLong[0];
+    private volatile int totalCopies = 0;
+    private final AtomicInteger availableCopies = new AtomicInteger();
+    private final Map<Integer, Object> holders = new ConcurrentHashMap<>();
+    private volatile boolean withdrawn; // taken out of lending; copies on the shelf stay put
+    private final Runnable bookReturn;  // run when setAvailable(true) hands back a loan
+
+    public CopyInventory(int copies) {
+        this(copies, () -> { });
+    }
+
+    public CopyInventory(int copies, Runnable bookReturn) {
+        if (bookReturn == null) throw new IllegalArgumentException("Return callback must be declared");
+        this.bookReturn = bookReturn;
+        addCopies(copies);
+    }
+
+    public synchronized void addCopies(int count) {
+        if (count <= 0) throw new IllegalArgumentException("Copy count must be positive");
+
+        int first = totalCopies;
+        int last = first + count;
+        int neededWords = (last + 63) >>> 6;
+        if (neededWords > words.length) {
+            AtomicLong[] grown = Arrays.copyOf(words, neededWords);
+            for (int i = words.length; i < neededWords; i++) {
+                grown[i] = new AtomicLong();
+            }
+            words = grown;
+        }
+        for (int copy = first; copy < last; copy++) {
+            setBit(copy);
+        }
+        totalCopies = last;
+        availableCopies.addAndGet(count);
+    }
+
+    // Claims any free copy for the patron (null for an anonymous loan); returns its copy number,
+    // or -1 when none is free
+    public int acquire(String patronId) {
+        if (withdrawn) return -1;
+        Object holder = holderKey(patronId);
+        int available;
+        do {
+            available = availableCopies.get();
+            if (available <= 0) return -1;
+        } while (!availableCopies.compareAndSet(available, available - 1));
+
+        // Random start word spreads concurrent claimers across the bitset
+        AtomicLong[] snapshot = words;
+        int start = ThreadLocalRandom.current().nextInt(snapshot.length);
+        while (true) {
+            for (int i = 0; i < snapshot.length; i++) {
+                int index = (start + i) % snapshot.length;
+                AtomicLong word = snapshot[index];
+                long bits = word.get();
+                while (bits != 0) {
+                    long lowest = bits & -bits;
+                    if (word.compareAndSet(bits, bits & ~lowest)) {
+                        int copy = (index << 6) + Long.numberOfTrailingZeros(lowest);
+                        holders.put(copy, holder);
+                        return copy;
+                    }
+                    bits = word.get();
+                }
+            }
+            // The reserved copy may sit in a word added by a concurrent addCopies
+            snapshot = words;
+        }
+    }
+
+    // Returns one copy held by the patron (null for an anonymous loan); gives the available count
+    // afterwards, or -1 if none is held
+    public int release(String patronId) {
+        Object holder = holderKey(patronId);
+        for (Map.Entry<Integer, Object> entry : holders.entrySet()) {
+            int copy = entry.getKey();
+            if (entry.getValue().equals(holder) && holders.remove(copy, holder)) {
+                setBit(copy);
+                return availableCopies.incrementAndGet();
+            }
+        }
+        return -1;
+    }
+
+    public int getTotalCopies() { return totalCopies; }
+
+    // Copies that can be lent right now; none while the title is withdrawn
+    public int getAvailableCopies() { return withdrawn ? 0 : availableCopies.get(); }
+
+    public boolean isWithdrawn() { return withdrawn; }
+
+    @Override
+    public boolean isAvailable() { return getAvailableCopies() > 0; }
+
+    // false withdraws the title. true reinstates it and, if no copy is on the shelf, hands back an
+    // anonymous loan, as Lendable.setAvailability always has; with every copy on a patron loan
+    // there is nothing it may return, so it throws.
+    @Override
+    public void setAvailable(boolean available) {
+        withdrawn = !available;
+        if (!available || availableCopies.get() > 0) return;
+        if (release(null) < 0) {
+            throw new IllegalStateException("Every copy is on a patron loan; return it through the book service");
+        }
+        bookReturn.run();
+    }
+
+    public boolean isOnShelf(int copy) {
+        if (copy < 0 || copy >= totalCopies) return false;
+        return (words[copy >>> 6].get() & (1L << (copy & 63))) != 0;
+    }
+
+    private static Object holderKey(String patronId) {
+        return patronId == null ? ANONYMOUS : patronId;
+    }
+
+    private void setBit(int copy) {
+        AtomicLong word = words[copy >>> 6];
+        long mask = 1L << (copy & 63);
+        long bits;
+        do {
+            bits = word.get();
+        } while (!word.compareAndSet(bits, bits | mask));
+    }
+}
@@ -0,0 +1,27 @@
+// File: src/libraryoop/services/LendingContext.java
+package libraryoop.services;
+
+import java.time.LocalDate;
+
+// Who is borrowing, where and when - the inputs lending rules are keyed on
+public class LendingContext {
+    private final String branch;
+    private final String patronTier;
+    private final LocalDate date;
+
+    // Null branch or tier means "unspecified" and only matches wildcard rules
+    public LendingContext(String branch, String patronTier, LocalDate date) {
+        if (date == null) throw new IllegalArgumentException("Date must be declared");
+        this.branch = branch;
+        this.patronTier = patronTier;
+        this.date = date;
+    }
+
+    public static LendingContext today() {
+        return new LendingContext(null, null, LocalDate.now());
+    }
+
+    public String getBranch() { return branch; }
+    public String getPatronTier() { return patronTier; }
+    public LocalDate getDate() { return date; }
+}
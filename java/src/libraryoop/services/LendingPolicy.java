@@ -0,0 +1,140 @@
+// File: src/libraryoop/services/LendingPolicy.java
+package libraryoop.services;
+
+import libraryoop.models.Book;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// Rule set compiled ahead of time into a branch x tier x format decision table
+//
+// Evaluation is three map lookups and an array index - no rule is inspected at checkout time.
+// Instances are immutable, so a policy can be shared freely across threads.
+public class LendingPolicy {
+    // Index 0 of each dimension is "not named by any rule"
+    private final Map<String, Integer> branchIndex = new HashMap<>();
+    private final Map<String, Integer> tierIndex = new HashMap<>();
+    private final Map<Class<?>, Integer> formatIndex = new HashMap<>();
+    private final int tierCount;
+    private final int formatCount;
+    private final Decision[] table;
+
+    public static LendingPolicy compile(List<LendingRule> rules) {
+        return new LendingPolicy(rules == null ? Collections.emptyList() : new ArrayList<>(rules));
+    }
+
+    private LendingPolicy(List<LendingRule> rules) {
+        List<String> branches = new ArrayList<>();
+        List<String> tiers = new ArrayList<>();
+        List<Class<?>> formats = new ArrayList<>();
+        branches.add(null);
+        tiers.add(null);
+        formats.add(null);
+        for (LendingRule rule : rules) {
+            if (rule == null) throw new IllegalArgumentException("Rule must be declared");
+            if (rule.getBranch() != null && !branchIndex.containsKey(rule.getBranch())) {
+                branchIndex.put(rule.getBranch(), branches.size());
+                branches.add(rule.getBranch());
+            }
+            if (rule.getPatronTier() != null && !tierIndex.containsKey(rule.getPatronTier())) {
+                tierIndex.put(rule.getPatronTier(), tiers.size());
+                tiers.add(rule.getPatronTier());
+            }
+            if (rule.getFormat() != null && !formatIndex.containsKey(rule.getFormat())) {
+                formatIndex.put(rule.getFormat(), formats.size());
+                formats.add(rule.getFormat());
+            }
+        }
+
+        this.tierCount = tiers.size();
+        this.formatCount = formats.size();
+        this.table = new Decision[branches.size() * tierCount * formatCount];
+        for (int b = 0; b < branches.size(); b++) {
+            for (int t = 0; t < tierCount; t++) {
+                for (int f = 0; f < formatCount; f++) {
+                    table[(b * tierCount + t) * formatCount + f] =
+                        resolve(rules, branches.get(b), tiers.get(t), formats.get(f));
+                }
+            }
+        }
+    }
+
+    public Decision evaluate(Book book, LendingContext context) {
+        if (book == null) throw new IllegalArgumentException("Book must be declared");
+        if (context == null) throw new IllegalArgumentException("LendingContext must be declared");
+
+        int b = indexOf(branchIndex, context.getBranch());
+        int t = indexOf(tierIndex, context.getPatronTier());
+        Integer f = formatIndex.get(book.getClass());
+        return table[(b * tierCount + t) * formatCount + (f == null ? 0 : f)];
+    }
+
+    public int getRuleCells() { return table.length; }
+
+    private static int indexOf(Map<String, Integer> index, String key) {
+        if (key == null) return 0;
+        Integer value = index.get(key);
+        return value == null ? 0 : value;
+    }
+
+    // Most specific rule wins each setting; among equals the later rule wins
+    private static Decision resolve(List<LendingRule> rules, String branch, String tier, Class<?> format) {
+        LendingRule periodRule = null;
+        LendingRule loansRule = null;
+        TreeSet<LocalDate> blackouts = new TreeSet<>();
+
+        for (LendingRule rule : rules) {
+            boolean matches = (rule.getBranch() == null || rule.getBranch().equals(branch))
+                && (rule.getPatronTier() == null || rule.getPatronTier().equals(tier))
+                && (rule.getFormat() == null || rule.getFormat().equals(format));
+            if (!matches) continue;
+
+            if (rule.getCheckoutPeriod() != null
+                && (periodRule == null || rule.specificity() >= periodRule.specificity())) {
+                periodRule = rule;
+            }
+            if (rule.getMaxLoans() != null
+                && (loansRule == null || rule.specificity() >= loansRule.specificity())) {
+                loansRule = rule;
+            }
+            blackouts.addAll(rule.getBlackoutDates());
+        }
+
+        long[] blackoutDays = new long[blackouts.size()];
+        int i = 0;
+        for (LocalDate date : blackouts) {
+            blackoutDays[i++] = date.toEpochDay();
+        }
+        return new Decision(
+            periodRule != null ? periodRule.getCheckoutPeriod() : Decision.UNSET,
+            loansRule != null ? loansRule.getMaxLoans() : Decision.UNSET,
+            blackoutDays);
+    }
+
+    // One precomputed table cell
+    public static class Decision {
+        static final int UNSET = -1;
+
+        private final int checkoutPeriod;
+        private final int maxLoans;
+        private final long[] blackoutDays; // sorted epoch days
+
+        Decision(int checkoutPeriod, int maxLoans, long[] blackoutDays) {
+            this.checkoutPeriod = checkoutPeriod;
+            this.maxLoans = maxLoans;
+            this.blackoutDays = blackoutDays;
+        }
+
+        // Falls back to the book's own period when no rule sets one
+        public int getCheckoutPeriod(Book book) {
+            return checkoutPeriod != UNSET ? checkoutPeriod : book.getCheckoutPeriod();
+        }
+
+        public boolean hasLoanLimit() { return maxLoans != UNSET; }
+        public int getMaxLoans() { return maxLoans == UNSET ? Integer.MAX_VALUE : maxLoans; }
+
+        public boolean isBlackedOut(LocalDate date) {
+            return blackoutDays.length > 0 && Arrays.binarySearch(blackoutDays, date.toEpochDay()) >= 0;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+// File: src/libraryoop/services/LendingPolicyEngine.java
+package libraryoop.services;
+
+import libraryoop.models.Book;
+
+import java.util.Collections;
+import java.util.List;
+
+// Holds the active compiled policy; reloads compile off to the side and swap in one volatile write,
+// so checkouts in flight keep using the old table and never wait on a reload
+public class LendingPolicyEngine {
+    private volatile LendingPolicy policy;
+
+    public LendingPolicyEngine() {
+        this(Collections.emptyList());
+    }
+
+    public LendingPolicyEngine(List<LendingRule> rules) {
+        this.policy = LendingPolicy.compile(rules);
+    }
+
+    public void reload(List<LendingRule> rules) {
+        LendingPolicy compiled = LendingPolicy.compile(rules);
+        this.policy = compiled;
+    }
+
+    public LendingPolicy getPolicy() {
+        return policy;
+    }
+
+    public LendingPolicy.Decision evaluate(Book book, LendingContext context) {
+        return policy.evaluate(book, context);
+    }
+}
@@ -0,0 +1,50 @@
+// File: src/libraryoop/services/LendingRule.java
+package libraryoop.services;
+
+import libraryoop.models.Book;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// One lending rule: a match on branch/tier/format plus the settings it applies
+//
+// Null match fields are wildcards. Null settings leave the value to less specific rules
+// (and ultimately the book's own getCheckoutPeriod). Blackout dates from every matching rule apply.
+public class LendingRule {
+    private final String branch;
+    private final String patronTier;
+    private final Class<? extends Book> format;
+    private final Integer checkoutPeriod;
+    private final Integer maxLoans;
+    private final Set<LocalDate> blackoutDates;
+
+    public LendingRule(String branch, String patronTier, Class<? extends Book> format,
+                       Integer checkoutPeriod, Integer maxLoans, Collection<LocalDate> blackoutDates) {
+        if (checkoutPeriod != null && checkoutPeriod <= 0) {
+            throw new IllegalArgumentException("Checkout period must be positive");
+        }
+        if (maxLoans != null && maxLoans < 0) {
+            throw new IllegalArgumentException("Max loans cannot be negative");
+        }
+        this.branch = branch;
+        this.patronTier = patronTier;
+        this.format = format;
+        this.checkoutPeriod = checkoutPeriod;
+        this.maxLoans = maxLoans;
+        this.blackoutDates = blackoutDates == null
+            ? Collections.emptySet()
+            : Collections.unmodifiableSet(new TreeSet<>(blackoutDates));
+    }
+
+    public String getBranch() { return branch; }
+    public String getPatronTier() { return patronTier; }
+    public Class<? extends Book> getFormat() { return format; }
+    public Integer getCheckoutPeriod() { return checkoutPeriod; }
+    public Integer getMaxLoans() { return maxLoans; }
+    public Set<LocalDate> getBlackoutDates() { return blackoutDates; }
+
+    // Number of non-wildcard match fields; the more specific rule wins a conflict
+    int specificity() {
+        return (branch != null ? 1 : 0) + (patronTier != null ? 1 : 0) + (format != null ? 1 : 0);
+    }
+}
@@ -1,8 +1,37 @@
 // File: src/libraryoop/services/LendingService.java
 package libraryoop.services;
 
+import libraryoop.models.Lendable;
+
 // Interface for lending service demonstrating contract-based design
 public interface LendingService {
     <T> String calculateDueDate(T item);
     <T> boolean canCheckout(T item);
-}
\ No newline at end of file
+
+    // Context-aware variants evaluate the lending rules for a branch, patron tier and date.
+    // The defaults ignore the context, so implementations written before the rules keep working.
+    default <T> String calculateDueDate(T item, LendingContext context) {
+        return calculateDueDate(item);
+    }
+
+    default <T> boolean canCheckout(T item, LendingContext context) {
+        return canCheckout(item);
+    }
+
+    default <T> int getCheckoutPeriod(T item, LendingContext context) {
+        if (item instanceof Lendable) return ((Lendable) item).getCheckoutPeriod();
+        throw new IllegalArgumentException("Item has no checkout period: " + item);
+    }
+
+    // No loan limit unless a rule sets one
+    default <T> int getMaxLoans(T item, LendingContext context) {
+        return Integer.MAX_VALUE;
+    }
+
+    // Everything one checkout needs, asked for once. Implementations whose rules can change at
+    // runtime should override this so the answers cannot come from two versions of the rules.
+    default <T> CheckoutTerms getCheckoutTerms(T item, LendingContext context) {
+        return new CheckoutTerms(canCheckout(item, context), getMaxLoans(item, context),
+                                 getCheckoutPeriod(item, context), calculateDueDate(item, context));
+    }
+}
@@ -1,23 +1,51 @@
 // File: src/libraryoop/services/LendingServiceImpl.java
 package libraryoop.services;
 
+import libraryoop.models.Book;
+
 import java.lang.reflect.Method;
 
 // Implementation demonstrating generics and reflection
 public class LendingServiceImpl implements LendingService {
+    private final LendingPolicyEngine policyEngine;
+
+    public LendingServiceImpl() {
+        this(new LendingPolicyEngine());
+    }
+
+    public LendingServiceImpl(LendingPolicyEngine policyEngine) {
+        if (policyEngine == null) throw new IllegalArgumentException("LendingPolicyEngine must be declared");
+        this.policyEngine = policyEngine;
+    }
+
+    public LendingPolicyEngine getPolicyEngine() { return policyEngine; }
+
+    @Override
+    public <T> String calculateDueDate(T item) {
+        return calculateDueDate(item, LendingContext.today());
+    }
+
+    @Override
+    public <T> boolean canCheckout(T item) {
+        return canCheckout(item, LendingContext.today());
+    }
+
     @Override
-    public <T> String calculateDueDate(T item) {        
+    public <T> String calculateDueDate(T item, LendingContext context) {
         try {
-            Method method = item.getClass().getMethod("getCheckoutPeriod");
-            Object result = method.invoke(item);
-            return "Due in " + result + " days";
+            return dueIn(getCheckoutPeriod(item, context));
         } catch (Exception e) {
             return e.getMessage();
         }
     }
-    
+
+    // Books go through the compiled policy; other lendables fall back to reflection
     @Override
-    public <T> boolean canCheckout(T item) {
+    public <T> boolean canCheckout(T item, LendingContext context) {
+        if (item instanceof Book) {
+            Book book = (Book) item;
+            return book.isAvailable() && !policyEngine.evaluate(book, context).isBlackedOut(context.getDate());
+        }
         try {
             Method method = item.getClass().getMethod("isAvailable");
             Object result = method.invoke(item);
@@ -26,4 +54,42 @@ public class LendingServiceImpl implements LendingService {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public <T> int getCheckoutPeriod(T item, LendingContext context) {
+        if (item instanceof Book) {
+            Book book = (Book) item;
+            return policyEngine.evaluate(book, context).getCheckoutPeriod(book);
+        }
+        try {
+            Method method = item.getClass().getMethod("getCheckoutPeriod");
+            return (int) method.invoke(item);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Item has no checkout period: " + item);
+        }
+    }
+
+    // Items not covered by a loan-limit rule are unlimited
+    @Override
+    public <T> int getMaxLoans(T item, LendingContext context) {
+        if (item instanceof Book) {
+            return policyEngine.evaluate((Book) item, context).getMaxLoans();
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    // One policy read per checkout, so a reload mid-checkout cannot mix old and new rules
+    @Override
+    public <T> CheckoutTerms getCheckoutTerms(T item, LendingContext context) {
+        if (!(item instanceof Book)) return LendingService.super.getCheckoutTerms(item, context);
+        Book book = (Book) item;
+        LendingPolicy.Decision decision = policyEngine.evaluate(book, context);
+        int checkoutPeriod = decision.getCheckoutPeriod(book);
+        return new CheckoutTerms(book.isAvailable() && !decision.isBlackedOut(context.getDate()),
+                                 decision.getMaxLoans(), checkoutPeriod, dueIn(checkoutPeriod));
+    }
+
+    private static String dueIn(int checkoutPeriod) {
+        return "Due in " + checkoutPeriod + " days";
+    }
+}
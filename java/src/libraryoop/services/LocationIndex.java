@@ -0,0 +1,274 @@
+// File: src/libraryoop/services/LocationIndex.java
+package libraryoop.services;
+
+import libraryoop.models.AvailabilityListener;
+import libraryoop.models.Book;
+import libraryoop.models.PhysicalBook;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+// Location -> shelf of physical books, with an availability bitmap per shelf
+//
+// Locations are matched case-insensitively. Locations sort as strings, so a hierarchical naming
+// scheme such as "Downtown/Section A" lets a prefix query answer "everything at branch Downtown".
+// The index subscribes to each attached book's availability, so bitmaps stay current however
+// the flag changes. A book can be detached (e.g. moved to cold storage): its slot stays, but no
+// book is left to notify the index, so queries re-check a detached title's availability at its
+// source and fetch it through the viewer, which must not re-attach it. Updates go through the
+// resolver, which hands back the live book. Bits are per title; copy counts come from the copy
+// counter.
+public class LocationIndex implements AvailabilityListener {
+    private final ConcurrentSkipListMap<String, Shelf> shelves = new ConcurrentSkipListMap<>();
+    // Shelf by location symbol ID, so per-book callbacks skip the string normalisation and tree walk
+    private volatile Shelf[] shelvesById = new Shelf[64];
+    private final Function<String, Book> resolver; // live book, for updates
+    private final Function<String, Book> viewer;   // read-only view, for queries
+    private final Predicate<String> availability;  // detached titles, by ISBN
+    private final ToIntFunction<String> copyCounter; // available copies by ISBN
+
+    public LocationIndex() {
+        this(isbn -> null);
+    }
+
+    // One copy per title
+    public LocationIndex(Function<String, Book> resolver) {
+        this(resolver, isbn -> 1);
+    }
+
+    // Detached titles are checked by fetching them through the resolver
+    public LocationIndex(Function<String, Book> resolver, ToIntFunction<String> copyCounter) {
+        this(resolver, resolver, isbn -> {
+            Book book = resolver.apply(isbn);
+            return book != null && book.isAvailable();
+        }, copyCounter);
+    }
+
+    public LocationIndex(Function<String, Book> resolver, Function<String, Book> viewer,
+                         Predicate<String> availability, ToIntFunction<String> copyCounter) {
+        if (resolver == null) throw new IllegalArgumentException("Resolver must be declared");
+        if (viewer == null) throw new IllegalArgumentException("Viewer must be declared");
+        if (availability == null) throw new IllegalArgumentException("Availability check must be declared");
+        if (copyCounter == null) throw new IllegalArgumentException("Copy counter must be declared");
+        this.resolver = resolver;
+        this.viewer = viewer;
+        this.availability = availability;
+        this.copyCounter = copyCounter;
+    }
+
+    // Adding a book that is already indexed re-attaches it to its slot
+    public void add(PhysicalBook book) {
+        if (book == null) throw new IllegalArgumentException("Book must be declared");
+        Shelf shelf = shelves.computeIfAbsent(key(book.getLocation()), k -> new Shelf());
+        rememberShelf(book.getLocationId(), shelf);
+        book.addAvailabilityListener(this);
+        shelf.attach(book);
+    }
+
+    public void detach(PhysicalBook book) {
+        if (book == null) return;
+        Shelf shelf = shelfOf(book);
+        if (shelf != null) shelf.detach(book);
+        book.removeAvailabilityListener(this);
+    }
+
+    @Override
+    public void availabilityChanged(Book book, boolean available) {
+        if (!(book instanceof PhysicalBook)) return;
+        Shelf shelf = shelfOf((PhysicalBook) book);
+        if (shelf != null) {
+            shelf.refresh(book.getIsbn());
+        }
+    }
+
+    public List<PhysicalBook> getBooksAt(String location) {
+        Shelf shelf = shelves.get(key(location));
+        return shelf == null ? new ArrayList<>() : resolve(shelf.all());
+    }
+
+    public List<PhysicalBook> getAvailableAt(String location) {
+        Shelf shelf = shelves.get(key(location));
+        List<Object> found = new ArrayList<>();
+        if (shelf != null) shelf.collectAvailable(found);
+        return resolveAvailable(found);
+    }
+
+    // Available copies across the shelf's available titles
+    public int countAvailableAt(String location) {
+        Shelf shelf = shelves.get(key(location));
+        if (shelf == null) return 0;
+        int copies = 0;
+        for (String isbn : shelf.availableIsbns()) copies += copyCounter.applyAsInt(isbn);
+        for (String isbn : shelf.detachedIsbns()) {
+            if (availability.test(isbn)) copies += copyCounter.applyAsInt(isbn);
+        }
+        return copies;
+    }
+
+    // Every shelf whose location starts with the prefix, e.g. a branch name
+    public List<PhysicalBook> getAvailableUnder(String locationPrefix) {
+        String prefix = key(locationPrefix);
+        List<Object> found = new ArrayList<>();
+        for (Shelf shelf : shelves.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            shelf.collectAvailable(found);
+        }
+        return resolveAvailable(found);
+    }
+
+    // Shelf audit: apply conditions by ISBN; cost is the size of the batch, not the catalog.
+    // Returns how many books were found on the shelf and updated.
+    public int auditShelf(String location, Map<String, String> conditionByIsbn) {
+        if (conditionByIsbn == null) throw new IllegalArgumentException("Conditions must be declared");
+        Shelf shelf = shelves.get(key(location));
+        if (shelf == null) return 0;
+
+        int updated = 0;
+        for (Map.Entry<String, String> entry : conditionByIsbn.entrySet()) {
+            Object found = shelf.find(entry.getKey());
+            PhysicalBook book = found == null ? null : resolve(found, resolver);
+            if (book != null) {
+                book.setCondition(entry.getValue());
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    public Set<String> getLocations() {
+        return Collections.unmodifiableSet(shelves.keySet());
+    }
+
+    private Shelf shelfOf(PhysicalBook book) {
+        Shelf[] byId = shelvesById;
+        int id = book.getLocationId();
+        Shelf shelf = id < byId.length ? byId[id] : null;
+        return shelf != null ? shelf : shelves.get(key(book.getLocation()));
+    }
+
+    // Several IDs can share a shelf, as locations are matched case-insensitively
+    private synchronized void rememberShelf(int locationId, Shelf shelf) {
+        Shelf[] byId = shelvesById;
+        if (locationId < byId.length && byId[locationId] == shelf) return;
+        if (locationId >= byId.length) {
+            byId = Arrays.copyOf(byId, Math.max(byId.length * 2, locationId + 1));
+        } else {
+            byId = byId.clone();
+        }
+        byId[locationId] = shelf;
+        shelvesById = byId;
+    }
+
+    private static String key(String location) {
+        return location == null ? "" : location.trim().toLowerCase();
+    }
+
+    // Detached slots come back as ISBNs whatever their state; keeps those available at the source
+    private List<PhysicalBook> resolveAvailable(List<Object> found) {
+        found.removeIf(item -> item instanceof String && !availability.test((String) item));
+        return resolve(found);
+    }
+
+    // Shelves hand back either the attached book or, for a detached slot, its ISBN
+    private List<PhysicalBook> resolve(List<Object> found) {
+        List<PhysicalBook> result = new ArrayList<>(found.size());
+        for (Object item : found) {
+            PhysicalBook book = resolve(item, viewer);
+            if (book != null) result.add(book);
+        }
+        return result;
+    }
+
+    private static PhysicalBook resolve(Object item, Function<String, Book> lookup) {
+        if (item instanceof PhysicalBook) return (PhysicalBook) item;
+        Book book = lookup.apply((String) item);
+        return book instanceof PhysicalBook ? (PhysicalBook) book : null;
+    }
+
+    // Slots are append-only, so a book keeps its bit for life; each shelf locks independently
+    private static class Shelf {
+        private final List<String> isbns = new ArrayList<>();
+        private final List<PhysicalBook> slots = new ArrayList<>(); // null while detached
+        private final Map<String, Integer> slotByIsbn = new HashMap<>();
+        private final BitSet available = new BitSet(); // attached slots only
+        private final BitSet detached = new BitSet();
+
+        synchronized void attach(PhysicalBook book) {
+            Integer slot = slotByIsbn.get(book.getIsbn());
+            if (slot == null) {
+                slot = slots.size();
+                isbns.add(book.getIsbn());
+                slots.add(book);
+                slotByIsbn.put(book.getIsbn(), slot);
+            } else {
+                slots.set(slot, book);
+            }
+            detached.clear(slot);
+            available.set(slot, book.isAvailable());
+        }
+
+        // The bit is dropped: nothing would keep it current while the book is away
+        synchronized void detach(PhysicalBook book) {
+            Integer slot = slotByIsbn.get(book.getIsbn());
+            if (slot != null && slots.get(slot) == book) {
+                slots.set(slot, null);
+                available.clear(slot);
+                detached.set(slot);
+            }
+        }
+
+        // Re-reads the book so a late notification can never leave a stale bit behind
+        synchronized void refresh(String isbn) {
+            Integer slot = slotByIsbn.get(isbn);
+            if (slot != null && slots.get(slot) != null) {
+                available.set(slot, slots.get(slot).isAvailable());
+            }
+        }
+
+        synchronized Object find(String isbn) {
+            Integer slot = slotByIsbn.get(isbn);
+            return slot == null ? null : item(slot);
+        }
+
+        synchronized List<Object> all() {
+            List<Object> result = new ArrayList<>(slots.size());
+            for (int slot = 0; slot < slots.size(); slot++) {
+                result.add(item(slot));
+            }
+            return result;
+        }
+
+        synchronized List<String> availableIsbns() {
+            List<String> result = new ArrayList<>(available.cardinality());
+            for (int slot = available.nextSetBit(0); slot >= 0; slot = available.nextSetBit(slot + 1)) {
+                result.add(isbns.get(slot));
+            }
+            return result;
+        }
+
+        synchronized List<String> detachedIsbns() {
+            List<String> result = new ArrayList<>(detached.cardinality());
+            for (int slot = detached.nextSetBit(0); slot >= 0; slot = detached.nextSetBit(slot + 1)) {
+                result.add(isbns.get(slot));
+            }
+            return result;
+        }
+
+        // Available attached books, plus every detached slot's ISBN for the caller to check
+        synchronized void collectAvailable(List<Object> result) {
+            for (int slot = available.nextSetBit(0); slot >= 0; slot = available.nextSetBit(slot + 1)) {
+                result.add(item(slot));
+            }
+            for (int slot = detached.nextSetBit(0); slot >= 0; slot = detached.nextSetBit(slot + 1)) {
+                result.add(isbns.get(slot));
+            }
+        }
+
+        private Object item(int slot) {
+            PhysicalBook book = slots.get(slot);
+            return book != null ? book : isbns.get(slot);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+// File: src/libraryoop/services/PatronLoanLedger.java
+package libraryoop.services;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Per-patron loan counters; each patron has its own CAS counter so patrons never contend with each other
+public class PatronLoanLedger {
+    private final ConcurrentHashMap<String, AtomicInteger> loans = new ConcurrentHashMap<>();
+
+    // Takes a loan slot only if the patron is below the limit
+    public boolean tryReserve(String patronId, int limit) {
+        AtomicInteger count = loans.computeIfAbsent(patronId, id -> new AtomicInteger());
+        while (true) {
+            int current = count.get();
+            if (current >= limit) return false;
+            if (count.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    public void release(String patronId) {
+        if (!tryRelease(patronId)) throw new IllegalStateException("Patron has no loans: " + patronId);
+    }
+
+    // Gives back one loan slot; false if the patron holds none
+    public boolean tryRelease(String patronId) {
+        AtomicInteger count = loans.get(patronId);
+        if (count == null) return false;
+        while (true) {
+            int current = count.get();
+            if (current <= 0) return false;
+            if (count.compareAndSet(current, current - 1)) return true;
+        }
+    }
+
+    // Undoes a tryRelease whose return then failed; skips the limit, as the slot was already held
+    public void restore(String patronId) {
+        loans.computeIfAbsent(patronId, id -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public int getLoanCount(String patronId) {
+        AtomicInteger count = loans.get(patronId);
+        return count == null ? 0 : count.get();
+    }
+}
@@ -0,0 +1,324 @@
+// File: src/libraryoop/services/SearchIndex.java
+package libraryoop.services;
+
+import libraryoop.models.Book;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Radix trie over every search term (whole names plus their words) for prefix and typo-tolerant lookup
+//
+// Fuzzy matching walks the trie once, carrying a banded Damerau-Levenshtein row per character
+// (in effect a Levenshtein automaton stepped along the trie), and prunes a branch as soon as every
+// cell exceeds the edit budget. Shared prefixes are evaluated once, never term by term.
+public class SearchIndex {
+    public static final int MAX_EDITS = 2;
+    private static final int ANCHORED_EDITS = 2;
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final String[] NO_IDS = new String[0];
+
+    private final Node root = new Node("");
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int termCount = 0;
+
+    public void add(Book book) {
+        if (book == null) throw new IllegalArgumentException("Book must be declared");
+
+        // Key -> display form; a one-word title and its only word collapse to a single key
+        Map<String, String> keys = new LinkedHashMap<>();
+        for (String term : book.getSearchTerms()) {
+            if (term == null) continue;
+            keys.putIfAbsent(normalize(term), term.trim());
+            for (String word : term.trim().split("[^\\p{L}\\p{N}]+")) {
+                if (word.length() >= MIN_WORD_LENGTH) keys.putIfAbsent(normalize(word), word);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<String, String> entry : keys.entrySet()) {
+                if (!entry.getKey().isEmpty()) insert(entry.getKey(), entry.getValue(), book.getIsbn());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Terms starting with the prefix, in alphabetical order
+    public List<String> complete(String prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        if (prefix == null || limit <= 0) return result;
+        String key = normalize(prefix);
+
+        lock.readLock().lock();
+        try {
+            Node node = findPrefix(key);
+            if (node != null) collectTerms(node, result, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    // Terms whose first characters are within maxEdits of the prefix - catches typos while typing
+    public List<String> completeFuzzy(String prefix, int maxEdits, int limit) {
+        checkEdits(maxEdits);
+        List<String> result = new ArrayList<>();
+        if (prefix == null || limit <= 0) return result;
+        char[] query = normalize(prefix).toCharArray();
+
+        lock.readLock().lock();
+        try {
+            List<Match> matches = new Walker(query, maxEdits, true).run(root);
+            matches.sort(Match.ORDER);
+            Set<String> seen = new LinkedHashSet<>();
+            for (Match match : matches) {
+                if (seen.size() >= limit) break;
+                List<String> terms = new ArrayList<>();
+                collectTerms(match.node, terms, limit - seen.size());
+                seen.addAll(terms);
+            }
+            result.addAll(seen);
+            return result.size() > limit ? result.subList(0, limit) : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ISBNs of items with a whole term within maxEdits of the query, closest first
+    public List<String> search(String query, int maxEdits, int limit) {
+        checkEdits(maxEdits);
+        List<String> result = new ArrayList<>();
+        if (query == null || query.trim().isEmpty() || limit <= 0) return result;
+        char[] key = normalize(query).toCharArray();
+
+        lock.readLock().lock();
+        try {
+            List<Match> matches = new Walker(key, maxEdits, false).run(root);
+            matches.sort(Match.ORDER);
+            Set<String> ids = new LinkedHashSet<>();
+            for (Match match : matches) {
+                for (int i = 0; i < match.node.idCount && ids.size() < limit; i++) {
+                    ids.add(match.node.ids[i]);
+                }
+                if (ids.size() >= limit) break;
+            }
+            result.addAll(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return termCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String value) {
+        return value.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+
+    private static void checkEdits(int maxEdits) {
+        if (maxEdits < 0 || maxEdits > MAX_EDITS) {
+            throw new IllegalArgumentException("Edit distance must be between 0 and " + MAX_EDITS);
+        }
+    }
+
+    private void insert(String key, String display, String id) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int pos = Arrays.binarySearch(node.keys, key.charAt(i));
+            if (pos < 0) {
+                Node leaf = new Node(key.substring(i));
+                node.insertChild(-pos - 1, leaf);
+                node = leaf;
+                break;
+            }
+            Node child = node.children[pos];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge where the new key diverges
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.keys = new char[]{child.label.charAt(0)};
+                middle.children = new Node[]{child};
+                node.children[pos] = middle;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        if (node.term == null) {
+            node.term = display;
+            termCount++;
+        }
+        node.addId(id);
+    }
+
+    // Node whose subtree holds every key starting with the prefix; the prefix may end mid-edge
+    private Node findPrefix(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int pos = Arrays.binarySearch(node.keys, prefix.charAt(i));
+            if (pos < 0) return null;
+            Node child = node.children[pos];
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common == prefix.length()) return child;
+            if (common < child.label.length()) return null;
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    private static void collectTerms(Node node, List<String> result, int limit) {
+        if (result.size() >= limit) return;
+        if (node.term != null) result.add(node.term);
+        for (Node child : node.children) {
+            collectTerms(child, result, limit);
+            if (result.size() >= limit) return;
+        }
+    }
+
+    // Depth-first walk with one reusable DP row per trie depth. Only the diagonal band
+    // |depth - j| <= maxEdits is computed; every cell outside it already exceeds the budget.
+    // In prefix mode a node matches once the whole query has been consumed within budget.
+    private static class Walker {
+        final char[] query;
+        final int maxEdits;
+        final boolean prefixMode;
+        final List<Match> matches = new ArrayList<>();
+        int[][] rows;
+        char[] path;
+
+        Walker(char[] query, int maxEdits, boolean prefixMode) {
+            this.query = query;
+            this.maxEdits = maxEdits;
+            this.prefixMode = prefixMode;
+            this.rows = new int[query.length + maxEdits + 2][query.length + 2];
+            this.path = new char[rows.length];
+            for (int j = 0; j <= query.length; j++) {
+                rows[0][j] = Math.min(j, maxEdits + 1);
+            }
+            rows[0][query.length + 1] = maxEdits + 1;
+        }
+
+        // At the full two-edit budget the first character must match, as in most fuzzy engines:
+        // typos rarely hit it, and it cuts the root fan-out that dominates the walk
+        List<Match> run(Node root) {
+            if (maxEdits >= ANCHORED_EDITS && query.length > 0) {
+                int pos = Arrays.binarySearch(root.keys, query[0]);
+                if (pos >= 0) walk(root.children[pos], 0);
+            } else {
+                for (Node child : root.children) walk(child, 0);
+            }
+            return matches;
+        }
+
+        private void walk(Node node, int depth) {
+            String label = node.label;
+            int n = query.length;
+            int limit = maxEdits + 1;
+            for (int k = 0; k < label.length(); k++) {
+                int d = depth + 1;
+                // Past n + maxEdits characters no cell can be within budget
+                if (d >= rows.length) return;
+                char c = label.charAt(k);
+                path[d] = c;
+                int[] row = rows[d - 1];
+                int[] next = rows[d];
+                int lo = Math.max(1, d - maxEdits);
+                int hi = Math.min(n, d + maxEdits);
+
+                next[0] = Math.min(d, limit);
+                if (lo > 1) next[lo - 1] = limit;
+                int min = next[0];
+                for (int j = lo; j <= hi; j++) {
+                    int cost = query[j - 1] == c ? 0 : 1;
+                    int value = Math.min(Math.min(row[j] + 1, next[j - 1] + 1), row[j - 1] + cost);
+                    if (d > 1 && j > 1 && query[j - 1] == path[d - 1] && query[j - 2] == c) {
+                        value = Math.min(value, rows[d - 2][j - 2] + 1);
+                    }
+                    next[j] = Math.min(value, limit);
+                    min = Math.min(min, next[j]);
+                }
+                if (hi + 1 <= n + 1) next[hi + 1] = limit;
+                if (min > maxEdits) return;
+                depth = d;
+
+                if (prefixMode && hi == n && next[n] <= maxEdits) {
+                    matches.add(new Match(node, next[n]));
+                    return;
+                }
+            }
+            if (!prefixMode && node.term != null && depth + maxEdits >= n && rows[depth][n] <= maxEdits) {
+                matches.add(new Match(node, rows[depth][n]));
+            }
+            for (Node child : node.children) {
+                walk(child, depth);
+            }
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) i++;
+        return i;
+    }
+
+    private static class Node {
+        String label;
+        char[] keys = NO_KEYS;          // first char of each child's label, sorted
+        Node[] children = NO_CHILDREN;
+        String term;                    // display form when a key ends here
+        String[] ids = NO_IDS;
+        int idCount;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        void insertChild(int index, Node child) {
+            char[] grownKeys = new char[keys.length + 1];
+            Node[] grownChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, grownKeys, 0, index);
+            System.arraycopy(children, 0, grownChildren, 0, index);
+            grownKeys[index] = child.label.charAt(0);
+            grownChildren[index] = child;
+            System.arraycopy(keys, index, grownKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, grownChildren, index + 1, children.length - index);
+            keys = grownKeys;
+            children = grownChildren;
+        }
+
+        // Keys are de-duplicated per book before insertion, so ids only need appending
+        void addId(String id) {
+            if (idCount == ids.length) ids = Arrays.copyOf(ids, Math.max(2, idCount * 2));
+            ids[idCount++] = id;
+        }
+    }
+
+    private static class Match {
+        static final Comparator<Match> ORDER = Comparator
+            .comparingInt((Match m) -> m.distance)
+            .thenComparing(m -> m.node.term == null ? "" : m.node.term);
+
+        final Node node;
+        final int distance;
+
+        Match(Node node, int distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+    }
+}
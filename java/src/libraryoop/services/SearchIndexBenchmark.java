@@ -0,0 +1,127 @@
+// File: src/libraryoop/services/SearchIndexBenchmark.java
+package libraryoop.services;
+
+import libraryoop.models.AudioBook;
+import libraryoop.models.Book;
+import libraryoop.models.DigitalBook;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Latency of autocomplete and fuzzy search over a synthetic catalog, with typos injected into queries
+//
+//   java -Xmx3g libraryoop.services.SearchIndexBenchmark [titles] [queries]
+public class SearchIndexBenchmark {
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    public static void main(String[] args) {
+        int titles = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        Random random = new Random(42);
+
+        String[] words = new String[20_000];
+        for (int i = 0; i < words.length; i++) words[i] = capitalize(randomWord(random, 3 + random.nextInt(8)));
+        String[] firstNames = new String[2_000];
+        String[] lastNames = new String[20_000];
+        for (int i = 0; i < firstNames.length; i++) firstNames[i] = capitalize(randomWord(random, 4 + random.nextInt(4)));
+        for (int i = 0; i < lastNames.length; i++) lastNames[i] = capitalize(randomWord(random, 5 + random.nextInt(5)));
+
+        SearchIndex index = new SearchIndex();
+        Book[] sample = new Book[Math.min(titles, 10_000)];
+        long start = System.nanoTime();
+        for (int i = 0; i < titles; i++) {
+            String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                + (random.nextBoolean() ? " " + words[random.nextInt(words.length)] : "");
+            String author = firstNames[random.nextInt(firstNames.length)] + " " + lastNames[random.nextInt(lastNames.length)];
+            Book book = i % 4 == 0
+                ? new AudioBook(title, author, "S" + i, firstNames[random.nextInt(firstNames.length)] + " "
+                                + lastNames[random.nextInt(lastNames.length)], 300)
+                : new DigitalBook(title, author, "S" + i, "epub");
+            index.add(book);
+            if (i < sample.length) sample[i] = book;
+        }
+        System.out.printf("Indexed %d titles (%d terms) in %.1f s%n",
+            titles, index.getTermCount(), (System.nanoTime() - start) / 1e9);
+
+        for (int round = 0; round < 2; round++) {
+            boolean report = round == 1; // first round is JIT warm-up
+            long[] complete = new long[queries];
+            long[] fuzzy1 = new long[queries];
+            long[] fuzzy2 = new long[queries];
+            long hits = 0;
+            int found1 = 0;
+            int found2 = 0;
+            int firstLetter2 = 0; // 2-edit queries whose first letter was changed
+            for (int q = 0; q < queries; q++) {
+                Book book = sample[random.nextInt(sample.length)];
+                String term = book.getSearchTerms().get(random.nextInt(book.getSearchTerms().size()));
+
+                String typo1 = typo(term, 1, random);
+                String typo2 = typo(term, 2, random);
+                if (typo2.charAt(0) != term.charAt(0)) firstLetter2++;
+
+                long t0 = System.nanoTime();
+                hits += index.complete(term.substring(0, Math.min(term.length(), 2 + random.nextInt(4))), 10).size();
+                long t1 = System.nanoTime();
+                List<String> result1 = index.search(typo1, 1, 10);
+                long t2 = System.nanoTime();
+                List<String> result2 = index.search(typo2, 2, 10);
+                long t3 = System.nanoTime();
+
+                hits += result1.size() + result2.size();
+                if (result1.contains(book.getIsbn())) found1++;
+                if (result2.contains(book.getIsbn())) found2++;
+
+                complete[q] = t1 - t0;
+                fuzzy1[q] = t2 - t1;
+                fuzzy2[q] = t3 - t2;
+            }
+            if (report) {
+                System.out.printf("%-26s %10s %10s %10s%n", "query", "p50 ms", "p99 ms", "max ms");
+                print("prefix complete", complete);
+                print("fuzzy, 1 edit", fuzzy1);
+                print("fuzzy, 2 edits", fuzzy2);
+                System.out.println("(" + hits + " results)");
+                // Typos can hit any letter. The 2-edit search requires the first letter to match,
+                // so 2-edit queries with a changed first letter miss by design.
+                System.out.printf("source title in top 10: 1 edit %.1f%%, 2 edits %.1f%% (%.1f%% of 2-edit queries changed the first letter)%n",
+                    100.0 * found1 / queries, 100.0 * found2 / queries, 100.0 * firstLetter2 / queries);
+            }
+        }
+    }
+
+    // Edits can land on any letter, the first included
+    private static String typo(String term, int edits, Random random) {
+        StringBuilder value = new StringBuilder(term);
+        for (int e = 0; e < edits && value.length() > 2; e++) {
+            switch (random.nextInt(3)) {
+                case 0: value.setCharAt(random.nextInt(value.length()), LETTERS.charAt(random.nextInt(LETTERS.length()))); break;
+                case 1: value.deleteCharAt(random.nextInt(value.length())); break;
+                default:
+                    int pos = random.nextInt(value.length() - 1);
+                    char c = value.charAt(pos);
+                    value.setCharAt(pos, value.charAt(pos + 1));
+                    value.setCharAt(pos + 1, c);
+            }
+        }
+        return value.toString();
+    }
+
+    private static void print(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-26s %10.3f %10.3f %10.3f%n", name,
+            sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
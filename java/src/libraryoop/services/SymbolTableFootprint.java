@@ -0,0 +1,49 @@
+// File: src/libraryoop/services/SymbolTableFootprint.java
+package libraryoop.services;
+
+import libraryoop.models.AudioBook;
+import libraryoop.models.Book;
+import libraryoop.models.DigitalBook;
+import libraryoop.models.PhysicalBook;
+import libraryoop.models.SymbolTable;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+// Retained heap per book when author, narrator, format and location are interned symbols
+//
+// Every field value is built as a fresh String, as an import or decoder would hand it over.
+//
+//   java -Xmx4g libraryoop.services.SymbolTableFootprint [titles]
+public class SymbolTableFootprint {
+
+    public static void main(String[] args) {
+        int titles = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] formats = {"epub", "pdf", "mobi", "azw3"};
+
+        long before = usedHeap();
+        List<Book> books = new ArrayList<>(titles);
+        for (int i = 0; i < titles; i++) {
+            String isbn = String.format("%013d", i);
+            String author = "Author " + (i % 20_000);
+            switch (i % 3) {
+                case 0: books.add(new DigitalBook("Digital Title " + i, author, isbn, new String(formats[i % formats.length]))); break;
+                case 1: books.add(new PhysicalBook("Printed Title " + i, author, isbn, "Branch " + (i % 20) + "/Shelf " + (i % 400))); break;
+                default: books.add(new AudioBook("Audio Title " + i, author, isbn, "Narrator " + (i % 2_000), 60 + i % 900));
+            }
+        }
+        long retained = usedHeap() - before;
+
+        System.out.printf("Titles: %d, retained heap %.1f MB, %.1f bytes per book%n",
+            titles, retained / 1048576.0, retained / (double) titles);
+        System.out.printf("Symbols: %d names, %d formats, %d locations%n",
+            SymbolTable.NAMES.size(), SymbolTable.FORMATS.size(), SymbolTable.LOCATIONS.size());
+        if (books.size() != titles) throw new IllegalStateException("Catalog lost titles");
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,296 @@
+// File: src/libraryoop/services/TieredCatalog.java
+package libraryoop.services;
+
+import libraryoop.codec.BinaryCodec;
+import libraryoop.codec.BookRecord;
+import libraryoop.models.Book;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Two-tier book store: hot titles stay as Book objects, cold ones live as encoded records off-heap
+//
+// Cold records sit in direct-buffer slabs and are found through an open-addressing long[] table,
+// so the cold tier costs the GC a handful of objects however many titles it holds.
+// A point lookup (get) counts as an access and promotes a cold title back to the heap.
+// rebalance() ages the access counters and demotes the least-used hot titles. A title looked up
+// since the previous rebalance is never demoted, so a reference from get() stays the live copy
+// through at least the next rebalance.
+// Scans walk cold titles as encoded records and build Books only for their hits. Books built
+// from cold records (peek, scans) are detached snapshots; changes to those are not kept.
+public class TieredCatalog {
+    private static final int MIN_TABLE_SIZE = 1024;
+    private static final long EMPTY = 0;
+    private static final long DELETED = -1;
+
+    private final int slabSize;
+    private final ConcurrentHashMap<String, HotEntry> hot = new ConcurrentHashMap<>();
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private long[] coldTable = new long[MIN_TABLE_SIZE]; // (slab << 32 | offset) + 1, or EMPTY/DELETED
+    private int coldCount = 0;
+    private int coldTableUsed = 0; // live + deleted slots, drives rehashing
+    private long deadBytes = 0;
+    private volatile TierListener listener;
+
+    // Hooks so owners can re-attach indexes when a title changes tier
+    public interface TierListener {
+        void promoted(Book book);
+        void demoted(Book book);
+    }
+
+    public TieredCatalog(int slabSize) {
+        if (slabSize < 1024) throw new IllegalArgumentException("Slab size must be at least 1024 bytes");
+        this.slabSize = slabSize;
+    }
+
+    public TieredCatalog() {
+        this(4 << 20);
+    }
+
+    public void setTierListener(TierListener listener) {
+        this.listener = listener;
+    }
+
+    // New titles start hot
+    public Book putIfAbsent(Book book) {
+        if (book == null) throw new IllegalArgumentException("Book must be declared");
+        synchronized (this) {
+            Book existing = peek(book.getIsbn());
+            if (existing != null) return existing;
+            hot.put(book.getIsbn(), new HotEntry(book));
+            return null;
+        }
+    }
+
+    public Book get(String isbn) {
+        if (isbn == null) return null;
+        HotEntry entry = hot.get(isbn);
+        if (entry != null) {
+            entry.hits++;
+            if (!entry.touched) entry.touched = true;
+            // demote() checks the flag before removing the entry, so if the entry is still mapped
+            // after the flag is set it stays hot until the next rebalance
+            if (hot.get(isbn) == entry) return entry.book;
+        }
+        return promote(isbn);
+    }
+
+    // Lookup without access accounting; cold titles come back as detached snapshots
+    public Book peek(String isbn) {
+        if (isbn == null) return null;
+        HotEntry entry = hot.get(isbn);
+        if (entry != null) return entry.book;
+        synchronized (this) {
+            int slot = findColdSlot(isbn);
+            return slot < 0 ? null : recordAt(coldTable[slot]).toBook();
+        }
+    }
+
+    public boolean contains(String isbn) {
+        return peek(isbn) != null;
+    }
+
+    public void forEachHot(Consumer<Book> action) {
+        for (HotEntry entry : hot.values()) {
+            action.accept(entry.book);
+        }
+    }
+
+    // Walks the slabs as they stood when the scan began, outside the lock, so lookups and
+    // checkouts never wait on a scan. This works because slabs are append-only: promotion only
+    // flags its record, and compaction writes into new slabs. Like a ConcurrentHashMap iterator,
+    // the scan is weakly consistent: a title changing tier meanwhile may be missed or seen twice.
+    public void forEachCold(Consumer<BookRecord> action) {
+        ByteBuffer[] snapshot;
+        int[] ends;
+        synchronized (this) {
+            snapshot = slabs.toArray(new ByteBuffer[0]);
+            ends = new int[snapshot.length];
+            for (int i = 0; i < snapshot.length; i++) ends[i] = snapshot[i].position();
+        }
+        for (int i = 0; i < snapshot.length; i++) {
+            int offset = 0;
+            while (offset < ends[i]) {
+                BookRecord record = BinaryCodec.readBook(snapshot[i], offset);
+                if (!record.isDeleted()) action.accept(record);
+                offset += record.getLength();
+            }
+        }
+    }
+
+    public int size() { return hot.size() + getColdCount(); }
+    public int getHotCount() { return hot.size(); }
+    public synchronized int getColdCount() { return coldCount; }
+
+    public synchronized long getOffHeapBytes() {
+        return (long) slabs.size() * slabSize;
+    }
+
+    // Keeps at most maxHot titles on the heap, demoting the least accessed ones, then halves
+    // every counter so access frequency reflects recent traffic. Titles looked up since the
+    // previous rebalance are skipped, so more than maxHot can stay hot. Returns the number demoted.
+    public int rebalance(int maxHot) {
+        if (maxHot < 0) throw new IllegalArgumentException("Max hot titles cannot be negative");
+
+        List<HotEntry> entries = new ArrayList<>(hot.values());
+        int excess = entries.size() - maxHot;
+        int demoted = 0;
+        if (excess > 0) {
+            entries.sort(Comparator.comparingInt(e -> e.hits));
+            for (HotEntry entry : entries) {
+                if (demoted == excess) break;
+                if (demote(entry)) demoted++;
+            }
+        }
+        for (HotEntry entry : hot.values()) {
+            entry.hits >>>= 1;
+            entry.touched = false;
+        }
+        synchronized (this) {
+            if (deadBytes > getOffHeapBytes() / 2) compact();
+        }
+        return demoted;
+    }
+
+    private Book promote(String isbn) {
+        Book book;
+        synchronized (this) {
+            HotEntry raced = hot.get(isbn);
+            if (raced != null) return raced.book;
+            int slot = findColdSlot(isbn);
+            if (slot < 0) return null;
+
+            BookRecord record = recordAt(coldTable[slot]);
+            book = record.toBook();
+            record.markDeleted();
+            deadBytes += record.getLength();
+            coldTable[slot] = DELETED;
+            coldCount--;
+            hot.put(isbn, new HotEntry(book));
+        }
+        TierListener current = listener;
+        if (current != null) current.promoted(book);
+        return book;
+    }
+
+    private boolean demote(HotEntry entry) {
+        Book book = entry.book;
+        synchronized (this) {
+            if (entry.touched || !hot.remove(book.getIsbn(), entry)) return false;
+            insertCold(book);
+        }
+        TierListener current = listener;
+        if (current != null) current.demoted(book);
+        return true;
+    }
+
+    private void insertCold(Book book) {
+        long location = append(book);
+        if ((coldTableUsed + 1) * 2 > coldTable.length) {
+            rehash(tableSizeFor((coldCount + 1) * 4));
+        }
+        int mask = coldTable.length - 1;
+        int slot = spread(book.getIsbn().hashCode()) & mask;
+        while (coldTable[slot] != EMPTY && coldTable[slot] != DELETED) {
+            slot = (slot + 1) & mask;
+        }
+        if (coldTable[slot] == EMPTY) coldTableUsed++;
+        coldTable[slot] = location;
+        coldCount++;
+    }
+
+    private long append(Book book) {
+        ByteBuffer slab = slabs.isEmpty() ? null : slabs.get(slabs.size() - 1);
+        if (slab != null) {
+            int mark = slab.position();
+            try {
+                BinaryCodec.encode(book, slab);
+                return encodeLocation(slabs.size() - 1, mark);
+            } catch (BufferOverflowException e) {
+                // Slab is full; the failed encode left its position untouched
+            }
+        }
+        slab = ByteBuffer.allocateDirect(slabSize);
+        slabs.add(slab);
+        BinaryCodec.encode(book, slab);
+        return encodeLocation(slabs.size() - 1, 0);
+    }
+
+    private int findColdSlot(String isbn) {
+        int mask = coldTable.length - 1;
+        int slot = spread(isbn.hashCode()) & mask;
+        while (coldTable[slot] != EMPTY) {
+            if (coldTable[slot] != DELETED && recordAt(coldTable[slot]).hasIsbn(isbn)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int size) {
+        long[] old = coldTable;
+        coldTable = new long[size];
+        coldTableUsed = 0;
+        int mask = size - 1;
+        for (long location : old) {
+            if (location == EMPTY || location == DELETED) continue;
+            int slot = spread(recordAt(location).getIsbn().hashCode()) & mask;
+            while (coldTable[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            coldTable[slot] = location;
+            coldTableUsed++;
+        }
+    }
+
+    // Rewrites live records into fresh slabs once more than half the space belongs to promoted titles
+    private void compact() {
+        List<Book> live = new ArrayList<>(coldCount);
+        for (long location : coldTable) {
+            if (location != EMPTY && location != DELETED) {
+                live.add(recordAt(location).toBook());
+            }
+        }
+        slabs.clear();
+        coldTable = new long[tableSizeFor(live.size() * 4)];
+        coldCount = 0;
+        coldTableUsed = 0;
+        deadBytes = 0;
+        for (Book book : live) {
+            insertCold(book);
+        }
+    }
+
+    private BookRecord recordAt(long location) {
+        long raw = location - 1;
+        return BinaryCodec.readBook(slabs.get((int) (raw >>> 32)), (int) raw);
+    }
+
+    private static long encodeLocation(int slab, int offset) {
+        return (((long) slab << 32) | offset) + 1;
+    }
+
+    // Power of two at least n, so the table sits at or below quarter load right after a resize
+    private static int tableSizeFor(int n) {
+        return Math.max(MIN_TABLE_SIZE, Integer.highestOneBit(Math.max(1, n - 1)) << 1);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static class HotEntry {
+        final Book book;
+        // Racy on purpose: a lost increment only blurs the estimate, and lookups never contend
+        volatile int hits;
+        volatile boolean touched; // looked up since the last rebalance
+
+        HotEntry(Book book) {
+            this.book = book;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+// File: src/libraryoop/services/TieredCatalogFootprint.java
+package libraryoop.services;
+
+import libraryoop.models.AudioBook;
+import libraryoop.models.DigitalBook;
+import libraryoop.models.PhysicalBook;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+// Heap size and full-GC pause with every title on the heap versus a mostly cold catalog
+//
+//   java -Xmx4g libraryoop.services.TieredCatalogFootprint [titles] [hotFraction]
+public class TieredCatalogFootprint {
+
+    public static void main(String[] args) {
+        int titles = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        double hotFraction = args.length > 1 ? Double.parseDouble(args[1]) : 0.05;
+
+        BookServiceImpl service = new BookServiceImpl(new LendingServiceImpl(), new NotificationServiceImpl());
+        for (int i = 0; i < titles; i++) {
+            String isbn = String.format("%013d", i);
+            switch (i % 3) {
+                case 0: service.addBook(new DigitalBook("Digital Title " + i, "Author " + (i % 50_000), isbn, "epub")); break;
+                case 1: service.addBook(new PhysicalBook("Printed Title " + i, "Author " + (i % 50_000), isbn, "Branch " + (i % 20) + "/Shelf " + (i % 500))); break;
+                default: service.addBook(new AudioBook("Audio Title " + i, "Author " + (i % 50_000), isbn, "Narrator " + (i % 2_000), 60 + i % 900));
+            }
+        }
+
+        System.out.println("Titles: " + titles + ", hot fraction after rebalance: " + hotFraction);
+        System.out.printf("%-12s %14s %14s %14s%n", "state", "heap MB", "off-heap MB", "full GC ms");
+        report("all hot", 0);
+
+        service.rebalanceCatalog((int) (titles * hotFraction));
+        report("tiered", offHeapMegabytes(service));
+
+        // Keep the catalog reachable until both measurements are done
+        if (service.getHotTitleCount() + service.getColdTitleCount() != titles) {
+            throw new IllegalStateException("Catalog lost titles");
+        }
+    }
+
+    private static void report(String state, double offHeapMb) {
+        System.gc();
+        long pause = fullGcMillis();
+        long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        System.out.printf("%-12s %14.1f %14.1f %14d%n", state, used / 1048576.0, offHeapMb, pause);
+    }
+
+    // Median of a few forced collections; the cost tracks how much live heap has to be traced
+    private static long fullGcMillis() {
+        long[] samples = new long[5];
+        for (int i = 0; i < samples.length; i++) {
+            long before = totalGcMillis();
+            System.gc();
+            samples[i] = totalGcMillis() - before;
+        }
+        java.util.Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static double offHeapMegabytes(BookServiceImpl service) {
+        return service.getOffHeapBytes() / 1048576.0;
+    }
+}
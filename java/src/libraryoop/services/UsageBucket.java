@@ -0,0 +1,25 @@
+// File: src/libraryoop/services/UsageBucket.java
+package libraryoop.services;
+
+// One time bucket of lending activity for a book type
+public class UsageBucket {
+    private final long startMillis;
+    private final long checkouts;
+    private final long returns;
+    private final long stockouts;
+    private final long peakCheckedOut;
+
+    public UsageBucket(long startMillis, long checkouts, long returns, long stockouts, long peakCheckedOut) {
+        this.startMillis = startMillis;
+        this.checkouts = checkouts;
+        this.returns = returns;
+        this.stockouts = stockouts;
+        this.peakCheckedOut = peakCheckedOut;
+    }
+
+    public long getStartMillis() { return startMillis; }
+    public long getCheckouts() { return checkouts; }
+    public long getReturns() { return returns; }
+    public long getStockouts() { return stockouts; } // titles whose last copy went out
+    public long getPeakCheckedOut() { return peakCheckedOut; }
+}
@@ -0,0 +1,231 @@
+// File: src/libraryoop/simulation/LendingSimulation.java
+package libraryoop.simulation;
+
+import libraryoop.models.AudioBook;
+import libraryoop.models.Book;
+import libraryoop.models.DigitalBook;
+import libraryoop.models.PhysicalBook;
+import libraryoop.services.*;
+import libraryoop.simulation.SimulationReport.Operation;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+// Replays a synthetic lending workload against any BookService/LendingService pair
+//
+// Patrons arrive as a Poisson process on a simulated clock and pick a checkout, search or report
+// by the configured mix. Titles are chosen by Zipfian popularity, and each loan is returned
+// after a random share of its type's checkout period. All choices come from one seeded Random
+// and the clock is simulated, so a seed replays the same traffic whatever the machine speed.
+//
+//   java libraryoop.simulation.LendingSimulation [seed] [titles] [days] [bookService] [lendingService] [notificationService]
+public class LendingSimulation {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final String[] BRANCHES = {"Downtown", "Eastside", "Harbor"};
+    private static final String[] FORMATS = {"epub", "pdf", "mobi"};
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    private final SimulationConfig config;
+    private final BookService bookService;
+    private final LendingService lendingService;
+    private final Random random;
+    private final ZipfDistribution popularity;
+    private final String[] isbns;
+    private final String[] titles;
+    private final String[] authors;
+    private final Book[] types; // detached stand-in of each title's type, for checkout periods
+    private final String[] words;
+    private boolean populated;
+
+    // The lending service should be the one the book service was built with, so scheduled
+    // returns use the same checkout periods the checkouts were granted under
+    public LendingSimulation(SimulationConfig config, BookService bookService, LendingService lendingService) {
+        if (config == null) throw new IllegalArgumentException("SimulationConfig must be declared");
+        if (bookService == null) throw new IllegalArgumentException("BookService must be declared");
+        if (lendingService == null) throw new IllegalArgumentException("LendingService must be declared");
+        this.config = config;
+        this.bookService = bookService;
+        this.lendingService = lendingService;
+        this.random = new Random(config.getSeed());
+        this.popularity = new ZipfDistribution(config.getTitles(), config.getZipfExponent());
+        this.isbns = new String[config.getTitles()];
+        this.titles = new String[config.getTitles()];
+        this.authors = new String[config.getTitles()];
+        this.types = new Book[config.getTitles()];
+        this.words = new String[Math.max(50, config.getTitles() / 10)];
+    }
+
+    // Adds the synthetic catalog: 45% physical with 1-3 copies (where the service supports copies),
+    // 35% digital, 20% audio. Titles, authors and types are kept here as well, so the driver never
+    // has to read the catalog back outside the operations it times.
+    public void populate() {
+        if (populated) return;
+        for (int i = 0; i < words.length; i++) words[i] = randomWord(3 + random.nextInt(7));
+        int authorCount = Math.max(10, config.getTitles() / 8);
+        Book physical = new PhysicalBook("Sample", "Sample", "SIM-PHYSICAL", BRANCHES[0] + "/Section A");
+        Book digital = new DigitalBook("Sample", "Sample", "SIM-DIGITAL", FORMATS[0]);
+        Book audio = new AudioBook("Sample", "Sample", "SIM-AUDIO", "Sample", 120);
+
+        for (int i = 0; i < isbns.length; i++) {
+            isbns[i] = String.format("SIM%07d", i);
+            String title = capitalize(words[random.nextInt(words.length)]) + " " + words[random.nextInt(words.length)];
+            String author = "Author " + capitalize(words[random.nextInt(authorCount) % words.length]);
+            titles[i] = title;
+            authors[i] = author;
+            int roll = random.nextInt(100);
+            if (roll < 45) {
+                String location = BRANCHES[random.nextInt(BRANCHES.length)] + "/Section " + (char) ('A' + random.nextInt(12));
+                bookService.addBook(new PhysicalBook(title, author, isbns[i], location));
+                types[i] = physical;
+                int extra = random.nextInt(3);
+                if (extra > 0 && bookService.supportsCopies()) {
+                    bookService.addCopies(isbns[i], extra);
+                }
+            } else if (roll < 80) {
+                bookService.addBook(new DigitalBook(title, author, isbns[i], FORMATS[random.nextInt(FORMATS.length)]));
+                types[i] = digital;
+            } else {
+                bookService.addBook(new AudioBook(title, author, isbns[i],
+                    "Narrator " + capitalize(words[random.nextInt(words.length)]), 120 + random.nextInt(900)));
+                types[i] = audio;
+            }
+        }
+        populated = true;
+    }
+
+    public SimulationReport run() {
+        populate();
+        SimulationReport report = new SimulationReport();
+        PriorityQueue<Loan> loans = new PriorityQueue<>();
+        double meanGapMinutes = 60.0 / config.getArrivalsPerHour();
+        int mixTotal = config.getCheckoutWeight() + config.getSearchWeight() + config.getReportWeight();
+        long end = (long) config.getDays() * MINUTES_PER_DAY;
+        long sequence = 0;
+
+        long started = System.nanoTime();
+        double now = 0;
+        while (true) {
+            now += -Math.log(1 - random.nextDouble()) * meanGapMinutes;
+            if (now >= end) break;
+
+            while (!loans.isEmpty() && loans.peek().dueMinute <= now) {
+                Loan loan = loans.poll();
+                long t0 = System.nanoTime();
+                boolean returned = bookService.returnBook(loan.isbn, loan.patronId);
+                report.record(Operation.RETURN, System.nanoTime() - t0, returned, 0);
+            }
+
+            LendingContext context = new LendingContext(null, null, START.plusDays((long) now / MINUTES_PER_DAY));
+            int roll = random.nextInt(mixTotal);
+            if (roll < config.getCheckoutWeight()) {
+                int index = popularity.sample(random);
+                String isbn = isbns[index];
+                String patronId = "P" + random.nextInt(config.getPatrons());
+                long t0 = System.nanoTime();
+                CheckoutResult result = bookService.checkoutBook(isbn, patronId, context);
+                report.record(Operation.CHECKOUT, System.nanoTime() - t0, result.isSuccess(), 0);
+                if (result.isSuccess()) {
+                    int periodDays = lendingService.getCheckoutPeriod(types[index], context);
+                    // Most loans come back early; about one in ten runs up to a tenth of a period late
+                    double share = 0.2 + random.nextDouble() * 0.9;
+                    long due = (long) (now + share * periodDays * MINUTES_PER_DAY);
+                    loans.add(new Loan(due, sequence++, isbn, patronId));
+                }
+            } else if (roll < config.getCheckoutWeight() + config.getSearchWeight()) {
+                int index = popularity.sample(random);
+                if (random.nextInt(10) < 7) {
+                    String query = random.nextBoolean() ? authors[index] : titles[index].split(" ")[0];
+                    long t0 = System.nanoTime();
+                    List<Book> results = bookService.searchBooks(query);
+                    report.record(Operation.SEARCH, System.nanoTime() - t0, !results.isEmpty(), results.size());
+                } else {
+                    String title = titles[index];
+                    String prefix = title.substring(0, Math.min(title.length(), 2 + random.nextInt(4)));
+                    long t0 = System.nanoTime();
+                    List<String> suggestions = bookService.autocomplete(prefix, 10);
+                    report.record(Operation.AUTOCOMPLETE, System.nanoTime() - t0, !suggestions.isEmpty(), suggestions.size());
+                }
+            } else {
+                long t0 = System.nanoTime();
+                AvailabilityReport availability = bookService.getAvailabilityReport();
+                report.record(Operation.REPORT, System.nanoTime() - t0, true, availability.getAvailableBooks());
+            }
+        }
+        report.finish(System.nanoTime() - started, config.getDays());
+        return report;
+    }
+
+    private String randomWord(int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    // Ties on the due minute fall back to checkout order, keeping the replay deterministic
+    private static class Loan implements Comparable<Loan> {
+        final long dueMinute;
+        final long sequence;
+        final String isbn;
+        final String patronId;
+
+        Loan(long dueMinute, long sequence, String isbn, String patronId) {
+            this.dueMinute = dueMinute;
+            this.sequence = sequence;
+            this.isbn = isbn;
+            this.patronId = patronId;
+        }
+
+        @Override
+        public int compareTo(Loan other) {
+            int byDue = Long.compare(dueMinute, other.dueMinute);
+            return byDue != 0 ? byDue : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    // Implementations are named by class and built reflectively: the lending and notification
+    // services need a no-argument constructor, the book service a (LendingService, NotificationService) one
+    public static void main(String[] args) throws Exception {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 42;
+        SimulationConfig defaults = SimulationConfig.defaults(seed);
+        int titles = args.length > 1 ? Integer.parseInt(args[1]) : defaults.getTitles();
+        int days = args.length > 2 ? Integer.parseInt(args[2]) : defaults.getDays();
+        String bookServiceClass = args.length > 3 ? args[3] : BookServiceImpl.class.getName();
+        String lendingServiceClass = args.length > 4 ? args[4] : LendingServiceImpl.class.getName();
+        String notificationServiceClass = args.length > 5 ? args[5] : NotificationServiceImpl.class.getName();
+
+        SimulationConfig config = new SimulationConfig(seed, titles, defaults.getPatrons(), defaults.getArrivalsPerHour(),
+            days, defaults.getZipfExponent(), defaults.getCheckoutWeight(), defaults.getSearchWeight(),
+            defaults.getReportWeight());
+        System.out.println("Simulating " + bookServiceClass + " with " + lendingServiceClass
+            + " and " + notificationServiceClass);
+
+        // First round warms up the JIT; both rounds must agree on the digest
+        long firstDigest = 0;
+        for (int round = 0; round < 2; round++) {
+            LendingService lendingService = (LendingService) Class.forName(lendingServiceClass)
+                .getDeclaredConstructor().newInstance();
+            NotificationService notificationService = (NotificationService) Class.forName(notificationServiceClass)
+                .getDeclaredConstructor().newInstance();
+            BookService bookService = (BookService) Class.forName(bookServiceClass)
+                .getDeclaredConstructor(LendingService.class, NotificationService.class)
+                .newInstance(lendingService, notificationService);
+
+            SimulationReport report = new LendingSimulation(config, bookService, lendingService).run();
+            if (round == 0) {
+                firstDigest = report.getDigest();
+            } else {
+                report.print(System.out);
+                if (report.getDigest() != firstDigest) {
+                    System.out.println("Warning: digest differs from the warm-up run, the implementation is not deterministic");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+// File: src/libraryoop/simulation/SimulationConfig.java
+package libraryoop.simulation;
+
+// Workload shape for a lending simulation; the same config and seed always replay the same traffic
+public class SimulationConfig {
+    private final long seed;
+    private final int titles;
+    private final int patrons;
+    private final double arrivalsPerHour;
+    private final int days;
+    private final double zipfExponent;
+    private final int checkoutWeight;
+    private final int searchWeight;
+    private final int reportWeight;
+
+    public SimulationConfig(long seed, int titles, int patrons, double arrivalsPerHour, int days,
+                            double zipfExponent, int checkoutWeight, int searchWeight, int reportWeight) {
+        if (titles <= 0) throw new IllegalArgumentException("Titles must be positive");
+        if (patrons <= 0) throw new IllegalArgumentException("Patrons must be positive");
+        if (arrivalsPerHour <= 0) throw new IllegalArgumentException("Arrival rate must be positive");
+        if (days <= 0) throw new IllegalArgumentException("Days must be positive");
+        if (zipfExponent < 0) throw new IllegalArgumentException("Zipf exponent cannot be negative");
+        if (checkoutWeight < 0 || searchWeight < 0 || reportWeight < 0
+                || checkoutWeight + searchWeight + reportWeight == 0) {
+            throw new IllegalArgumentException("Operation mix must have a positive weight");
+        }
+        this.seed = seed;
+        this.titles = titles;
+        this.patrons = patrons;
+        this.arrivalsPerHour = arrivalsPerHour;
+        this.days = days;
+        this.zipfExponent = zipfExponent;
+        this.checkoutWeight = checkoutWeight;
+        this.searchWeight = searchWeight;
+        this.reportWeight = reportWeight;
+    }
+
+    // A small branch: 5k titles, 1k patrons, one week, mostly searches
+    public static SimulationConfig defaults(long seed) {
+        return new SimulationConfig(seed, 5_000, 1_000, 200, 7, 1.0, 30, 65, 5);
+    }
+
+    public long getSeed() { return seed; }
+    public int getTitles() { return titles; }
+    public int getPatrons() { return patrons; }
+    public double getArrivalsPerHour() { return arrivalsPerHour; }
+    public int getDays() { return days; }
+    public double getZipfExponent() { return zipfExponent; }
+    public int getCheckoutWeight() { return checkoutWeight; }
+    public int getSearchWeight() { return searchWeight; }
+    public int getReportWeight() { return reportWeight; }
+}
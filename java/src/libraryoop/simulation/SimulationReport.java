@@ -0,0 +1,91 @@
+// File: src/libraryoop/simulation/SimulationReport.java
+package libraryoop.simulation;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Outcome of one simulation run: per-operation counts and latency, wall-clock throughput, and a
+// digest of every result so two runs can be checked for identical behaviour
+public class SimulationReport {
+    public enum Operation { CHECKOUT, RETURN, SEARCH, AUTOCOMPLETE, REPORT }
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private long digest = 17;
+    private long elapsedNanos;
+    private int simulatedDays;
+
+    SimulationReport() {
+        for (Operation operation : Operation.values()) recorders.put(operation, new Recorder());
+    }
+
+    void record(Operation operation, long nanos, boolean succeeded, int resultSize) {
+        recorders.get(operation).add(nanos, succeeded);
+        digest = digest * 31 + operation.ordinal();
+        digest = digest * 31 + (succeeded ? 1 : 0);
+        digest = digest * 31 + resultSize;
+    }
+
+    void finish(long elapsedNanos, int simulatedDays) {
+        this.elapsedNanos = elapsedNanos;
+        this.simulatedDays = simulatedDays;
+    }
+
+    public long getCount(Operation operation) { return recorders.get(operation).count; }
+    public long getSucceeded(Operation operation) { return recorders.get(operation).succeeded; }
+
+    public long getTotalOperations() {
+        long total = 0;
+        for (Recorder recorder : recorders.values()) total += recorder.count;
+        return total;
+    }
+
+    // Same seed, config and implementations give the same digest; timing never feeds into it
+    public long getDigest() { return digest; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : getTotalOperations() / (elapsedNanos / 1e9);
+    }
+
+    public double getPercentileMillis(Operation operation, double p) {
+        return recorders.get(operation).percentile(p);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%d operations over %d simulated days in %.2f s (%.0f ops/s), digest %016x%n",
+            getTotalOperations(), simulatedDays, elapsedNanos / 1e9, getThroughput(), digest);
+        out.printf("%-14s %10s %10s %10s %10s %10s%n", "operation", "count", "ok", "p50 ms", "p99 ms", "p99.9 ms");
+        for (Operation operation : Operation.values()) {
+            Recorder recorder = recorders.get(operation);
+            out.printf("%-14s %10d %10d %10.3f %10.3f %10.3f%n", operation.name().toLowerCase(),
+                recorder.count, recorder.succeeded,
+                recorder.percentile(0.50), recorder.percentile(0.99), recorder.percentile(0.999));
+        }
+    }
+
+    private static class Recorder {
+        long[] latencies = new long[1024];
+        int count;
+        long succeeded;
+        boolean sorted;
+
+        void add(long nanos, boolean ok) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+            if (ok) succeeded++;
+            sorted = false;
+        }
+
+        double percentile(double p) {
+            if (count == 0) return 0;
+            if (!sorted) {
+                Arrays.sort(latencies, 0, count);
+                sorted = true;
+            }
+            int index = (int) Math.min(count - 1, Math.ceil(p * count) - 1);
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+// File: src/libraryoop/simulation/ZipfDistribution.java
+package libraryoop.simulation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Ranks 0..n-1 drawn with probability proportional to 1 / (rank + 1)^exponent
+class ZipfDistribution {
+    private final double[] cumulative;
+
+    ZipfDistribution(int n, double exponent) {
+        if (n <= 0) throw new IllegalArgumentException("Size must be positive");
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) cumulative[rank] /= sum;
+    }
+
+    int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+}